@@ -0,0 +1,147 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             Bench.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A small, dependency-free micro-benchmark harness. Each benchmark is an
+ * operation that is run repeatedly for a fixed amount of time per iteration:
+ * first some warmup iterations, whose timings are discarded, and then some
+ * measured iterations, whose average time per operation is reported. Values
+ * returned by the operations are folded into a sink so that the JIT cannot
+ * discard the work.
+ * 
+ * @author bhoward
+ */
+public class Bench
+{
+   /**
+    * Construct a harness with the given schedule.
+    * 
+    * @param warmups
+    *           the number of warmup iterations for each benchmark
+    * @param iterations
+    *           the number of measured iterations for each benchmark
+    * @param millis
+    *           the length of each iteration, in milliseconds
+    */
+   public Bench(int warmups, int iterations, long millis)
+   {
+      this.warmups = warmups;
+      this.iterations = iterations;
+      this.nanos = millis * 1_000_000L;
+      this.names = new ArrayList<>();
+      this.ops = new ArrayList<>();
+   }
+
+   /**
+    * Register a benchmark.
+    * 
+    * @param name
+    * @param op
+    */
+   public void add(String name, Op op)
+   {
+      names.add(name);
+      ops.add(op);
+   }
+
+   /**
+    * Run every registered benchmark whose name contains the filter, printing
+    * one line of results for each.
+    * 
+    * @param filter
+    *           the text to look for, or "" to run everything
+    * @throws Exception
+    *            if any operation fails
+    */
+   public void run(String filter) throws Exception
+   {
+      System.out.printf("%-40s %14s %12s%n", "Benchmark", "ns/op", "+/-");
+      for (int i = 0; i < names.size(); i++) {
+         String name = names.get(i);
+         if (name.contains(filter)) {
+            measure(name, ops.get(i));
+         }
+      }
+
+      // Print the sink so that it is live
+      System.out.println("(sink " + Long.toHexString(sink) + ")");
+   }
+
+   private void measure(String name, Op op) throws Exception
+   {
+      for (int i = 0; i < warmups; i++) {
+         iteration(op);
+      }
+
+      double[] results = new double[iterations];
+      double sum = 0;
+      for (int i = 0; i < iterations; i++) {
+         results[i] = iteration(op);
+         sum += results[i];
+      }
+
+      double mean = sum / iterations;
+      double squares = 0;
+      for (double result : results) {
+         squares += (result - mean) * (result - mean);
+      }
+      double deviation = (iterations > 1)
+         ? Math.sqrt(squares / (iterations - 1)) : 0;
+
+      System.out.printf("%-40s %14.1f %12.1f%n", name, mean, deviation);
+   }
+
+   // Run the operation repeatedly for one iteration; return ns per operation
+   private double iteration(Op op) throws Exception
+   {
+      long count = 0;
+      long start = System.nanoTime();
+      long elapsed;
+      do {
+         for (int i = 0; i < BATCH; i++) {
+            Object result = op.run();
+            sink = sink * 31 + ((result == null) ? 0 : result.hashCode());
+         }
+         count += BATCH;
+         elapsed = System.nanoTime() - start;
+      } while (elapsed < nanos);
+
+      return (double) elapsed / count;
+   }
+
+   private final int warmups;
+
+   private final int iterations;
+
+   private final long nanos;
+
+   private final List<String> names;
+
+   private final List<Op> ops;
+
+   private long sink;
+
+   // Operations are timed in groups of this many calls
+   private static final int BATCH = 16;
+
+   /**
+    * One operation to be timed. The result is consumed by the harness.
+    */
+   @FunctionalInterface
+   public interface Op
+   {
+      Object run() throws Exception;
+   }
+}
@@ -0,0 +1,67 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             RunBenchmarks.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.bench;
+
+import edu.depauw.csc232.solitaire.core.CoreBenchmarks;
+import edu.depauw.csc232.solitaire.klondike.KlondikeBenchmarks;
+import edu.depauw.csc232.solitaire.ui.CardImages;
+import edu.depauw.csc232.solitaire.ui.UiBenchmarks;
+
+/**
+ * Run the rendering and move benchmarks. No display is needed; everything is
+ * drawn into off-screen images.
+ * 
+ * @author bhoward
+ */
+public class RunBenchmarks
+{
+   /**
+    * Usage: RunBenchmarks [-w warmups] [-i iterations] [-t millis] [filter]
+    * <p>
+    * By default there are 3 warmup and 5 measured iterations of 500 ms for
+    * each benchmark whose name contains the filter (all of them, if it is
+    * omitted).
+    * 
+    * @param args
+    * @throws Exception
+    */
+   public static void main(String[] args) throws Exception
+   {
+      System.setProperty("java.awt.headless", "true");
+
+      int warmups = 3;
+      int iterations = 5;
+      long millis = 500;
+      String filter = "";
+      for (int i = 0; i < args.length; i++) {
+         switch (args[i]) {
+         case "-w":
+            warmups = Integer.parseInt(args[++i]);
+            break;
+         case "-i":
+            iterations = Integer.parseInt(args[++i]);
+            break;
+         case "-t":
+            millis = Long.parseLong(args[++i]);
+            break;
+         default:
+            filter = args[i];
+         }
+      }
+
+      Bench bench = new Bench(warmups, iterations, millis);
+      CardImages images = CardImages.getShared("/cards/", ".png");
+      CoreBenchmarks.register(bench);
+      UiBenchmarks.register(bench, images);
+      KlondikeBenchmarks.register(bench, images);
+      bench.run(filter);
+   }
+}
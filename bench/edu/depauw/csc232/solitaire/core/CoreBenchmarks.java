@@ -0,0 +1,115 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             CoreBenchmarks.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.core;
+
+import edu.depauw.csc232.solitaire.bench.Bench;
+import edu.depauw.csc232.solitaire.model.Rank;
+import edu.depauw.csc232.solitaire.model.Suit;
+
+/**
+ * Benchmarks for the CardMover. This class lives in the core package so that
+ * it can reach the package-private operations that a Board normally performs;
+ * it also makes a few of them available to the benchmarks in other packages.
+ * 
+ * @author bhoward
+ */
+public class CoreBenchmarks
+{
+   private CoreBenchmarks()
+   {
+   }
+
+   /**
+    * @return a new CardMover, as Board would create for one action
+    */
+   public static CardMover newMover()
+   {
+      return new CardMover();
+   }
+
+   /**
+    * Register the benchmarks in this class.
+    * 
+    * @param bench
+    */
+   public static void register(Bench bench)
+   {
+      // Move a run between two tableaus, flip a card onto a squared pile,
+      // and then undo, redo, and undo again to restore the starting state
+      Pile source = Pile.makeVertical(PileStrategy.makeDefault());
+      Pile target = Pile.makeVertical(PileStrategy.makeDefault());
+      Pile squared = Pile.makeSquared(PileStrategy.makeDefault());
+      source.addSuit(Suit.Spades);
+      target.addSuit(Suit.Diamonds);
+      bench.add("CardMover.move+flipMove/undo/redo", () -> {
+         CardMover mover = new CardMover();
+         mover.move(5, source, target);
+         mover.flipMove(1, target, squared);
+         mover.undo();
+         mover.redo();
+         mover.undo();
+         return mover;
+      });
+
+      // Recycle a 24-card waste pile onto the stock and deal it back out, as
+      // one flipped move each way
+      Pile stock = Pile.makeSquared(PileStrategy.makeDefault());
+      Pile waste = Pile.makeSquared(PileStrategy.makeDefault());
+      waste.addSuit(Suit.Clubs);
+      waste.addSuit(Suit.Spades);
+      for (int i = 0; i < 2; i++) {
+         waste.deal();
+      }
+      bench.add("CardMover.flipMove/recycle24", () -> {
+         CardMover mover = new CardMover();
+         mover.flipMove(24, waste, stock);
+         mover.flipMove(24, stock, waste);
+         return mover;
+      });
+   }
+
+   /**
+    * Take the top card off the pile and put it back, as a one-card move
+    * would, without recording anything.
+    * 
+    * @param pile
+    */
+   public static void replaceTop(Pile pile)
+   {
+      pile.add(pile.deal());
+   }
+
+   /**
+    * @return a tall tableau: six face-down cards under a run of thirteen
+    */
+   public static Pile tallTableau()
+   {
+      Pile tall = Pile.makeVertical(PileStrategy.makeDefault());
+      tall.addSuit(Suit.Clubs);
+      for (int i = 0; i < 7; i++) {
+         tall.deal();
+      }
+      for (Rank rank : Rank.values()) {
+         tall.add(Card.of(rank, Suit.Hearts, true));
+      }
+      return tall;
+   }
+
+   /**
+    * Reverse the moves recorded by a CardMover, as Board's undo would.
+    * 
+    * @param mover
+    */
+   public static void undo(CardMover mover)
+   {
+      mover.undo();
+   }
+}
@@ -0,0 +1,76 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             KlondikeBenchmarks.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import edu.depauw.csc232.solitaire.bench.Bench;
+import edu.depauw.csc232.solitaire.core.CardMover;
+import edu.depauw.csc232.solitaire.core.CoreBenchmarks;
+import edu.depauw.csc232.solitaire.ui.CardImages;
+import edu.depauw.csc232.solitaire.ui.Table;
+
+/**
+ * Benchmarks that need a fully dealt game of Klondike: painting the whole
+ * table, and the auto-move search made when a tableau is clicked. Every run
+ * uses the same deal number, so results are comparable between builds.
+ * 
+ * @author bhoward
+ */
+public class KlondikeBenchmarks
+{
+   private KlondikeBenchmarks()
+   {
+   }
+
+   /**
+    * Register the benchmarks in this class.
+    * 
+    * @param bench
+    * @param images
+    */
+   public static void register(Bench bench, CardImages images)
+   {
+      KlondikeGame game = new KlondikeGame(DEAL);
+      Table table = new Table(images);
+      table.dealGame(game);
+      game.layout(table::addPile, table.getBoard());
+      table.setSize(WIDTH, HEIGHT);
+
+      BufferedImage canvas = new BufferedImage(WIDTH, HEIGHT,
+               BufferedImage.TYPE_INT_RGB);
+      bench.add("Table.paintComponent/dealt", () -> {
+         Graphics2D g = canvas.createGraphics();
+         table.paintComponent(g);
+         g.dispose();
+         return canvas;
+      });
+
+      // Click the top card of each tableau in turn, then undo whatever move
+      // the click made
+      TableauStrategy strategy = new TableauStrategy(game);
+      bench.add("TableauStrategy.handleClick/x7", () -> {
+         for (int i = 0; i < game.tableaus.length; i++) {
+            CardMover mover = CoreBenchmarks.newMover();
+            strategy.handleClick(game.tableaus[i], 1, mover);
+            CoreBenchmarks.undo(mover);
+         }
+         return game.tableaus.length;
+      });
+   }
+
+   private static final long DEAL = 232;
+
+   private static final int WIDTH = 700;
+
+   private static final int HEIGHT = 600;
+}
@@ -0,0 +1,48 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             UiBenchmarks.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.ui;
+
+import edu.depauw.csc232.solitaire.bench.Bench;
+import edu.depauw.csc232.solitaire.core.CoreBenchmarks;
+import edu.depauw.csc232.solitaire.core.Pile;
+
+/**
+ * Benchmarks for the card stack images. This class lives in the ui package so
+ * that it can reach the package-private StackImage that a Table keeps for each
+ * pile.
+ * 
+ * @author bhoward
+ */
+public class UiBenchmarks
+{
+   private UiBenchmarks()
+   {
+   }
+
+   /**
+    * Register the benchmarks in this class.
+    * 
+    * @param bench
+    * @param images
+    */
+   public static void register(Bench bench, CardImages images)
+   {
+      // A tall tableau: six face-down cards under a run of thirteen. Each
+      // operation takes the top card off and puts it back, as a one-card
+      // move would, and then asks for the new image.
+      Pile tall = CoreBenchmarks.tallTableau();
+      StackImage image = new StackImage(tall, null);
+      bench.add("CardStack.getImage/vertical19", () -> {
+         CoreBenchmarks.replaceTop(tall);
+         return image.getImage(images);
+      });
+   }
+}
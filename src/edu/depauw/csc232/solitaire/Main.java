@@ -13,8 +13,11 @@ package edu.depauw.csc232.solitaire;
 import javax.swing.Box;
 import javax.swing.JButton;
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
 
 import edu.depauw.csc232.solitaire.klondike.KlondikeGame;
+import edu.depauw.csc232.solitaire.ui.CardImages;
+import edu.depauw.csc232.solitaire.ui.klondike.KlondikeWindow;
 
 /**
  * Main class for the solitaire application.
@@ -29,6 +32,9 @@ public class Main
     */
    public void start()
    {
+      // Decode the card images in the background while the user chooses
+      CardImages.getShared("/cards/", ".png").preload();
+
       JFrame frame = new JFrame("CSC232 Solitaire");
 
       Box buttons = Box.createVerticalBox();
@@ -37,11 +43,30 @@ public class Main
       JButton klondike = new JButton("Klondike");
       klondike.setAlignmentX(JButton.CENTER_ALIGNMENT);
       klondike.addActionListener(event -> {
-         Game game = new KlondikeGame();
-         game.start();
+         KlondikeGame game = new KlondikeGame();
+         new KlondikeWindow(game).display();
       });
       buttons.add(klondike);
 
+      JButton numbered = new JButton("Klondike deal #...");
+      numbered.setAlignmentX(JButton.CENTER_ALIGNMENT);
+      numbered.addActionListener(event -> {
+         String input = JOptionPane.showInputDialog(frame, "Deal number:");
+         if (input != null) {
+            try {
+               KlondikeGame game = new KlondikeGame(
+                        Long.parseLong(input.trim()));
+               new KlondikeWindow(game).display();
+            }
+            catch (NumberFormatException e) {
+               JOptionPane.showMessageDialog(frame,
+                        "Not a deal number: " + input, "Solitaire",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+         }
+      });
+      buttons.add(numbered);
+
       JButton quit = new JButton("Quit");
       quit.setAlignmentX(JButton.CENTER_ALIGNMENT);
       quit.addActionListener(event -> {
@@ -0,0 +1,462 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             Board.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.depauw.csc232.solitaire.Game;
+
+/**
+ * The state of a card game, with no display: its Piles, the undo/redo
+ * history, the position hash, and the journal, if any. Clicks and drags on
+ * the piles are passed to a Board, which gives each action its own CardMover
+ * and records what the piles' strategies did with it. A user interface such
+ * as {@link edu.depauw.csc232.solitaire.ui.Table Table} sits on top of a
+ * Board, turning mouse events into calls on it and redrawing the piles that it
+ * reports as changed. A batch program may use a Board directly, without
+ * loading any AWT or Swing classes.
+ * <p>
+ * Each method that may change the cards adds the piles it changes to a
+ * collection given by the caller, and returns whether anything happened.
+ * <p>
+ * A Board must only be used from one thread, but after every change to the
+ * cards it publishes a {@link BoardSnapshot} of them, which
+ * {@link #getSnapshot()} returns to any thread without locking.
+ * 
+ * @author bhoward
+ */
+public class Board
+{
+   /**
+    * Construct an empty board.
+    */
+   public Board()
+   {
+      this.piles = new ArrayList<>();
+      this.positionHash = new PositionHash();
+      this.history = new History(DEFAULT_HISTORY_BYTES);
+      this.snapshot = new AtomicReference<>();
+      publish();
+   }
+
+   /**
+    * Add the given Pile to the board. A pile gets its id in the history (and
+    * so in a journal) when the history first sees it: the piles that
+    * {@link #dealGame(Game)} dealt to already have theirs, in the order the
+    * deal touched them, and the others are given the next ids in the order
+    * they are added.
+    * 
+    * @param pile
+    */
+   public void addPile(Pile pile)
+   {
+      piles.add(pile);
+      history.add(pile);
+      pile.setPositionHash(positionHash, nextHashSlot++);
+      publish();
+   }
+
+   /**
+    * Cancel the drag in progress, if any, returning the dragged cards to
+    * their origin.
+    * 
+    * @param changed
+    *           a collection to which the origin is added
+    */
+   public void cancelDrag(Collection<Pile> changed)
+   {
+      if (packet != null) {
+         packet.cancelDrag();
+         changed.add(packet.getOrigin());
+         packet = null;
+      }
+   }
+
+   /**
+    * Respond to a click on some number of cards from the top of the given
+    * pile, recording any moves its strategy makes as a single action. Nothing
+    * happens while cards are being dragged.
+    * 
+    * @param pile
+    * @param numCards
+    *           the number of cards selected, or 0 if the pile is empty
+    * @param changed
+    *           a collection to which each pile changed by the click is added
+    * @return true if any cards were moved
+    */
+   public boolean click(Pile pile, int numCards, Collection<Pile> changed)
+   {
+      if (packet != null) {
+         return false;
+      }
+
+      CardMover mover = new CardMover();
+      pile.handleClick(mover, numCards);
+      return commit(mover, changed);
+   }
+
+   /**
+    * Stop keeping a journal of the game, if one is open, and close its file.
+    */
+   public void closeJournal()
+   {
+      if (journal != null) {
+         journal.close();
+         journal = null;
+      }
+   }
+
+   /**
+    * Add the moves of the given CardMover to the undo/redo history as a
+    * single action (and to the journal, if any).
+    * 
+    * @param mover
+    * @param changed
+    * @return true if the mover made any moves
+    */
+   private boolean commit(CardMover mover, Collection<Pile> changed)
+   {
+      if (mover.isEmpty()) {
+         return false;
+      }
+
+      changed.addAll(mover.getPiles());
+      history.record(mover);
+      if (journal != null) {
+         journal.action(mover, history);
+      }
+      publish();
+      return true;
+   }
+
+   /**
+    * Request that the Game deal out its initial set of cards with a provided
+    * CardMover. The deal cannot be undone.
+    * 
+    * @param game
+    */
+   public void dealGame(Game game)
+   {
+      CardMover mover = new CardMover();
+      game.dealGame(mover);
+      for (Pile pile : mover.getPiles()) {
+         history.register(pile);
+      }
+      history.clear();
+      publish();
+   }
+
+   /**
+    * Drop the cards being dragged on the given pile, which should be one
+    * whose {@link Pile#canDrop(Packet)} accepts them, and record the move
+    * (and any that the origin's strategy makes as a result) as a single
+    * action.
+    * 
+    * @param target
+    * @param changed
+    *           a collection to which each pile changed by the drop is added
+    * @return true if there was a drag in progress
+    */
+   public boolean drop(Pile target, Collection<Pile> changed)
+   {
+      if (packet == null) {
+         return false;
+      }
+
+      CardMover mover = new CardMover();
+      changed.add(packet.getOrigin());
+      packet.endDrag(target, mover);
+      packet = null;
+      commit(mover, changed);
+      return true;
+   }
+
+   /**
+    * @return the number of moves in the undo/redo history; positions in the
+    *         history run from 0 to this number
+    */
+   public int getHistoryLength()
+   {
+      return history.getLength();
+   }
+
+   /**
+    * @return the current position in the undo/redo history: the number of
+    *         moves that can be undone
+    */
+   public int getHistoryPosition()
+   {
+      return history.getPosition();
+   }
+
+   /**
+    * @return the cards being dragged, or null if there is no drag in progress
+    */
+   public Packet getPacket()
+   {
+      return packet;
+   }
+
+   /**
+    * Return the most recently published snapshot of the cards on the board.
+    * A new snapshot is published whenever the cards change, other than by
+    * picking up cards to drag, so while cards are being dragged the snapshot
+    * still shows them on their origin. This may be called from any thread.
+    * 
+    * @return the snapshot
+    */
+   public BoardSnapshot getSnapshot()
+   {
+      return snapshot.get();
+   }
+
+   /**
+    * Return a 64-bit Zobrist hash of the cards on the board, suitable as a
+    * key for looking up positions. It is kept up to date as cards move, so
+    * this takes constant time. While cards are being dragged, the hash is
+    * still that of the position with the cards on their origin.
+    * 
+    * @return the hash of the current position
+    */
+   public long getPositionHash()
+   {
+      return positionHash.get();
+   }
+
+   /**
+    * Keep a journal of the game in the given file, so that it can be resumed
+    * later: every move, undo, and redo is appended to the file as it happens.
+    * This should be called just after the game has been dealt and its piles
+    * added, before any moves are made. If the file already holds a journal,
+    * the game is first brought up to date by replaying it.
+    * 
+    * @param file
+    * @param seed
+    *           the number from which the game was dealt, such as its deal
+    *           number, which is saved in a new journal
+    * @param changed
+    *           a collection to which each pile changed by the replay is
+    *           added
+    * @throws IOException
+    *            if the file cannot be read or written, or holds a journal
+    *            for a different seed
+    */
+   public void openJournal(File file, long seed, Collection<Pile> changed)
+            throws IOException
+   {
+      if (history.getLength() != 0 || packet != null) {
+         throw new IllegalStateException(
+                  "A journal must be opened before any moves are made");
+      }
+
+      closeJournal();
+      journal = Journal.open(file, seed, history, changed);
+      publish();
+   }
+
+   /**
+    * Take a snapshot of the cards on every pile, and make it the one
+    * returned by {@link #getSnapshot()}. This costs one array of a byte per
+    * pile and per card.
+    */
+   private void publish()
+   {
+      int size = piles.size();
+      for (Pile pile : piles) {
+         size += pile.size();
+      }
+
+      byte[] data = new byte[size];
+      int offset = piles.size();
+      for (int p = 0; p < piles.size(); p++) {
+         Pile pile = piles.get(p);
+         data[p] = (byte) pile.size();
+         pile.copyCodes(data, offset);
+         offset += pile.size();
+      }
+      snapshot.set(new BoardSnapshot(data, piles.size(), positionHash.get(),
+               history.getPosition()));
+   }
+
+   /**
+    * Read the seed saved in the journal in the given file, so that the game
+    * it records can be dealt again before the journal is opened.
+    * 
+    * @param file
+    * @return the seed
+    * @throws IOException
+    *            if the file cannot be read or is not a journal
+    */
+   public static long readJournalSeed(File file) throws IOException
+   {
+      return Journal.readSeed(file);
+   }
+
+   /**
+    * Redo the most recently undone move, if any. Nothing happens while cards
+    * are being dragged.
+    * 
+    * @param changed
+    *           a collection to which each pile changed is added
+    * @return true if a move was redone
+    */
+   public boolean redo(Collection<Pile> changed)
+   {
+      if (packet != null || !history.redo(changed)) {
+         return false;
+      }
+
+      if (journal != null) {
+         journal.seek(1);
+      }
+      publish();
+      return true;
+   }
+
+   /**
+    * Remove the given Pile from the board.
+    * 
+    * @param pile
+    * @return true if the pile was present
+    */
+   public boolean removePile(Pile pile)
+   {
+      pile.setPositionHash(null, 0);
+      boolean removed = piles.remove(pile);
+      publish();
+      return removed;
+   }
+
+   /**
+    * Jump to the given position in the undo/redo history, as if by undoing or
+    * redoing all of the moves in between. Distant positions are reached by
+    * restoring a saved arrangement of the cards near the position and
+    * replaying only the moves after it. Nothing happens while cards are
+    * being dragged.
+    * 
+    * @param position
+    *           the position, from 0 to {@link #getHistoryLength()}
+    * @param changed
+    *           a collection to which each pile changed is added
+    * @return true if the position changed
+    */
+   public boolean seek(int position, Collection<Pile> changed)
+   {
+      int start = history.getPosition();
+      if (packet != null || !history.seek(position, changed)) {
+         return false;
+      }
+
+      if (journal != null) {
+         journal.seek(position - start);
+      }
+      publish();
+      return true;
+   }
+
+   /**
+    * Limit the memory used to remember moves for undo and redo. Once the
+    * history grows past the limit, the oldest moves are forgotten. The
+    * default is one megabyte, which holds on the order of a hundred thousand
+    * moves.
+    * 
+    * @param maxBytes
+    *           the limit, which must be at least 4096
+    */
+   public void setHistoryLimit(int maxBytes)
+   {
+      history.setLimit(maxBytes);
+   }
+
+   /**
+    * Treat a pile as interchangeable with another in the position hash, so
+    * that the hash only depends on what the two hold between them, not on
+    * which of them holds which cards. For example, the foundations in
+    * Klondike may share a slot, since it makes no difference to the game
+    * which foundation holds which suit. Both piles must already be on this
+    * board.
+    * 
+    * @param pile
+    * @param other
+    */
+   public void shareHashSlot(Pile pile, Pile other)
+   {
+      pile.setPositionHash(positionHash, other.getHashSlot());
+   }
+
+   /**
+    * Pick up the cards of the given pile from the given index to the top, to
+    * be dragged, if the pile's strategy allows it. Until the drag is ended
+    * by {@link #drop(Pile, Collection)} or
+    * {@link #cancelDrag(Collection)}, the cards are off the pile, but the
+    * position hash still counts them as being there.
+    * 
+    * @param pile
+    * @param index
+    *           the index (counting from the bottom at 0) of the card picked
+    *           up, as found by {@link Pile#identifyCard(int, int)}
+    * @return the packet of cards being dragged, or null if the drag is not
+    *         allowed or another is already in progress
+    */
+   public Packet startDrag(Pile pile, int index)
+   {
+      if (packet != null || !pile.canDrag()) {
+         return null;
+      }
+
+      packet = pile.startDrag(index);
+      return packet;
+   }
+
+   /**
+    * Undo the most recent move, if any. Nothing happens while cards are being
+    * dragged.
+    * 
+    * @param changed
+    *           a collection to which each pile changed is added
+    * @return true if a move was undone
+    */
+   public boolean undo(Collection<Pile> changed)
+   {
+      if (packet != null || !history.undo(changed)) {
+         return false;
+      }
+
+      if (journal != null) {
+         journal.seek(-1);
+      }
+      publish();
+      return true;
+   }
+
+   private final History history;
+
+   // The journal of moves for resuming the game, or null if none
+   private Journal journal;
+
+   private final List<Pile> piles;
+   private final PositionHash positionHash; // of the cards on all the piles
+   private int nextHashSlot;
+
+   // The cards being dragged, or null if none
+   private Packet packet;
+
+   // The latest snapshot of the cards, for other threads to read
+   private final AtomicReference<BoardSnapshot> snapshot;
+
+   // Default memory limit for the undo/redo history
+   private static final int DEFAULT_HISTORY_BYTES = 1 << 20;
+}
@@ -0,0 +1,136 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             BoardSnapshot.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.core;
+
+/**
+ * An immutable copy of the cards on a Board, as published by
+ * {@link Board#getSnapshot()}. Since it never changes, it may be read from any
+ * thread, with no locking, while the game goes on. The whole position is kept
+ * in one byte array: the number of cards on each pile, in the order the piles
+ * were added to the board, followed by the codes (see {@link Card#getCode()})
+ * of the cards of each pile in turn, from the bottom up.
+ * 
+ * @author bhoward
+ */
+public final class BoardSnapshot
+{
+   // Package-private constructor; the array must not be changed afterward
+   BoardSnapshot(byte[] data, int piles, long positionHash,
+            int historyPosition)
+   {
+      this.data = data;
+      this.piles = piles;
+      this.positionHash = positionHash;
+      this.historyPosition = historyPosition;
+   }
+
+   /**
+    * Copy the codes of the cards on the given pile, from the bottom up, into
+    * the given array.
+    * 
+    * @param pile
+    *           the index of the pile, in the order the piles were added
+    * @param dest
+    * @param offset
+    *           the index in the array at which to put the code of the bottom
+    *           card
+    */
+   public void copyCodes(int pile, byte[] dest, int offset)
+   {
+      System.arraycopy(data, offsetOf(pile), dest, offset, size(pile));
+   }
+
+   /**
+    * Return the card at the given index of a pile, counting from the bottom
+    * at index 0.
+    * 
+    * @param pile
+    * @param index
+    * @return the card
+    */
+   public Card getCard(int pile, int index)
+   {
+      return Card.fromCode(getCode(pile, index));
+   }
+
+   /**
+    * Return the code (see {@link Card#getCode()}) of the card at the given
+    * index of a pile, counting from the bottom at index 0.
+    * 
+    * @param pile
+    * @param index
+    * @return the code
+    */
+   public int getCode(int pile, int index)
+   {
+      if (index < 0 || index >= size(pile)) {
+         throw new IndexOutOfBoundsException("Index " + index
+            + " in a pile of " + size(pile));
+      }
+      return data[offsetOf(pile) + index];
+   }
+
+   /**
+    * @return the position in the undo/redo history at which the snapshot was
+    *         taken
+    */
+   public int getHistoryPosition()
+   {
+      return historyPosition;
+   }
+
+   /**
+    * @return the number of piles
+    */
+   public int getPileCount()
+   {
+      return piles;
+   }
+
+   /**
+    * @return the position hash (see {@link Board#getPositionHash()}) of the
+    *         cards in the snapshot
+    */
+   public long getPositionHash()
+   {
+      return positionHash;
+   }
+
+   // Return the index in the data of the bottom card of the given pile
+   private int offsetOf(int pile)
+   {
+      int offset = piles;
+      for (int p = 0; p < pile; p++) {
+         offset += data[p] & 0xFF;
+      }
+      return offset;
+   }
+
+   /**
+    * @param pile
+    * @return the number of cards on the given pile
+    */
+   public int size(int pile)
+   {
+      if (pile < 0 || pile >= piles) {
+         throw new IndexOutOfBoundsException("Pile " + pile + " of " + piles);
+      }
+      return data[pile] & 0xFF;
+   }
+
+   private final byte[] data;
+
+   private final int piles;
+
+   private final long positionHash;
+
+   private final int historyPosition;
+}
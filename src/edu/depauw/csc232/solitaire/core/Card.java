@@ -0,0 +1,161 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             Card.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.core;
+
+import edu.depauw.csc232.solitaire.model.Rank;
+import edu.depauw.csc232.solitaire.model.Suit;
+
+/**
+ * Represent a card from an ordinary 52-card deck, including a rank, a suit, and
+ * whether the card is face-up or face-down. Cards are immutable, and there is
+ * only one Card object for each of the 104 combinations, shared by every game;
+ * a CardStack holds just the one-byte {@link #getCode() code} of each of its
+ * cards, and turning a card over replaces its code with that of the
+ * {@link #flipped() flipped} card.
+ * 
+ * @author bhoward
+ */
+public final class Card
+{
+   // Private constructor for the shared card with the given code
+   private Card(int code)
+   {
+      this.rank = RANKS[(code & ~FACE_UP) % 13];
+      this.suit = SUITS[(code & ~FACE_UP) / 13];
+      this.faceUp = (code & FACE_UP) != 0;
+      this.code = code;
+   }
+
+   /**
+    * Return the card with the given one-byte code, as returned by
+    * {@link #getCode()}.
+    * 
+    * @param code
+    * @return the card
+    */
+   public static Card fromCode(int code)
+   {
+      return CARDS[code];
+   }
+
+   /**
+    * Return the face-down card with the given rank and suit.
+    * 
+    * @param rank
+    * @param suit
+    * @return the card
+    */
+   public static Card of(Rank rank, Suit suit)
+   {
+      return of(rank, suit, false);
+   }
+
+   /**
+    * Return the card with the given rank, suit, and face-up status.
+    * 
+    * @param rank
+    * @param suit
+    * @param faceUp
+    *           true if the card is face-up
+    * @return the card
+    */
+   public static Card of(Rank rank, Suit suit, boolean faceUp)
+   {
+      int code = suit.ordinal() * 13 + rank.ordinal();
+      return CARDS[faceUp ? code | FACE_UP : code];
+   }
+
+   /**
+    * @return the same card, turned over
+    */
+   public Card flipped()
+   {
+      return CARDS[code ^ FACE_UP];
+   }
+
+   public String getAbbrev()
+   {
+      return "" + rank.getAbbrev() + suit.getAbbrev();
+   }
+
+   /**
+    * Return the one-byte code for this card: 13 times the suit's ordinal plus
+    * the rank's ordinal (from 0 to 51), plus {@link #FACE_UP} if the card is
+    * face-up.
+    * 
+    * @return the code
+    */
+   public int getCode()
+   {
+      return code;
+   }
+
+   public Rank getRank()
+   {
+      return rank;
+   }
+
+   public Suit getSuit()
+   {
+      return suit;
+   }
+
+   /**
+    * @return the value (1 to 13) corresponding to this card's rank
+    */
+   public int getValue()
+   {
+      return rank.getValue();
+   }
+
+   public boolean isFaceUp()
+   {
+      return faceUp;
+   }
+
+   /**
+    * @return true if this card's suit is red (heart or diamond)
+    */
+   public boolean isRed()
+   {
+      return suit.isRed();
+   }
+
+   @Override
+   public String toString()
+   {
+      return "Card [rank=" + rank + ", suit=" + suit + ", faceUp=" + faceUp
+         + "]";
+   }
+
+   private final Rank rank;
+   private final Suit suit;
+   private final boolean faceUp;
+   private final int code;
+
+   /**
+    * The bit set in the code of a face-up card.
+    */
+   public static final int FACE_UP = 0x40;
+
+   private static final Rank[] RANKS = Rank.values();
+   private static final Suit[] SUITS = Suit.values();
+
+   // The shared cards, indexed by code; codes from 52 to 63 are unused
+   private static final Card[] CARDS = new Card[FACE_UP * 2];
+
+   static {
+      for (int code = 0; code < 52; code++) {
+         CARDS[code] = new Card(code);
+         CARDS[code | FACE_UP] = new Card(code | FACE_UP);
+      }
+   }
+}
@@ -0,0 +1,276 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             CardMover.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  (list anyone else other than your instructor who helped)
+//                   (describe in detail the the ideas and help they provided)
+//
+// Online sources:   (include Web URLs and description of any information used)
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.depauw.csc232.solitaire.model.Shuffle;
+import edu.depauw.csc232.solitaire.model.Suit;
+
+/**
+ * A <code>CardMover</code> is an object that is allowed to move cards from one
+ * Pile to another. It is the only legal way to do so from outside the core
+ * package, because it is also responsible for keeping track of moves so that
+ * they may be undone/redone.
+ * 
+ * @author bhoward
+ */
+public class CardMover
+{
+   // package-protected constructor -- should only be created by Board
+   CardMover()
+   {
+      this.moves = new int[INITIAL_CAPACITY];
+      this.piles = new ArrayList<>();
+   }
+
+   /**
+    * Add all 52 cards of a standard deck to the Pile. Note: this move cannot be
+    * undone, so it should only be called on a CardMover that is going to be
+    * completed with Board's initialCommit method.
+    * 
+    * @param pile
+    */
+   public void addDeck(Pile pile)
+   {
+      for (Suit suit : Suit.values()) {
+         addSuit(suit, pile);
+      }
+   }
+
+   /**
+    * Add all 13 cards of the given Suit to the Pile. Note: this move cannot be
+    * undone, so it should only be called on a CardMover that is going to be
+    * completed with Board's initialCommit method.
+    * 
+    * @param suit
+    * @param pile
+    */
+   public void addSuit(Suit suit, Pile pile)
+   {
+      int n = pile.size();
+      pile.addSuit(suit);
+      pile.toggleHash(n);
+   }
+
+   /**
+    * Move the given number of cards from one Pile to the other, flipping them
+    * in the process. The order of the cards will also be reversed, so that the
+    * top card of "source" will be under the remaining cards that are moved.
+    * 
+    * @param numCards
+    * @param source
+    * @param target
+    */
+   public void flipMove(int numCards, Pile source, Pile target)
+   {
+      transfer(numCards, source, target, true);
+      record(numCards, source, target, true);
+   }
+
+   /**
+    * Special case for pulling the top card from a pile, flipping it over, and
+    * putting it back.
+    * 
+    * @param pile
+    */
+   public void flipTop(Pile pile)
+   {
+      flipMove(1, pile, pile);
+   }
+
+   /**
+    * Return one of the recorded moves, packed as by
+    * {@link History#encode(int, int, int, boolean)}. The pile ids in the move
+    * are indices into {@link #getPiles()}.
+    * 
+    * @param index
+    * @return the packed move
+    */
+   int getMove(int index)
+   {
+      return moves[index];
+   }
+
+   /**
+    * @return the number of moves recorded in this CardMover
+    */
+   int getMoveCount()
+   {
+      return size;
+   }
+
+   /**
+    * @return the Piles changed by the moves recorded in this CardMover, in
+    *         order of first use, without repeats
+    */
+   List<Pile> getPiles()
+   {
+      return piles;
+   }
+
+   // Return the index of the pile in the list of changed piles, adding it if
+   // it is not already there
+   private int indexOf(Pile pile)
+   {
+      int index = piles.indexOf(pile);
+      if (index < 0) {
+         index = piles.size();
+         piles.add(pile);
+      }
+      return index;
+   }
+
+   /**
+    * @return true if no moves have been recorded by this CardMover
+    */
+   boolean isEmpty()
+   {
+      return size == 0;
+   }
+
+   /**
+    * Move the given number of cards from one Pile to the other. The order of
+    * the cards will be preserved, so that the top card of "source" will become
+    * the top card of "target".
+    * 
+    * @param numCards
+    * @param source
+    * @param target
+    */
+   public void move(int numCards, Pile source, Pile target)
+   {
+      transfer(numCards, source, target, false);
+      record(numCards, source, target, false);
+   }
+
+   /**
+    * Convenience method to move cards already in a Packet without having to put
+    * them back in the origin pile.
+    * 
+    * @param packet
+    * @param target
+    */
+   void move(Packet packet, Pile target)
+   {
+      // The position hash still counts the cards as being on the origin
+      Pile origin = packet.getOrigin();
+      int n = origin.size();
+      int numCards = packet.size();
+      for (int i = 0; i < numCards; i++) {
+         origin.toggleHash(n + i, packet.getFromTop(numCards - i));
+      }
+
+      packet.moveTo(target, 0, false);
+      target.toggleHash(target.size() - numCards);
+      record(numCards, origin, target, false);
+   }
+
+   // Add a move to the record
+   private void record(int numCards, Pile source, Pile target, boolean flip)
+   {
+      if (size == moves.length) {
+         moves = Arrays.copyOf(moves, size * 2);
+      }
+      moves[size++] = History.encode(indexOf(source), indexOf(target),
+               numCards, flip);
+   }
+
+   /**
+    * Replay the moves recorded in this object. This should only be called after
+    * an undo.
+    */
+   void redo()
+   {
+      for (int i = 0; i < size; i++) {
+         int move = moves[i];
+         transfer(History.getCount(move), piles.get(History.getSource(move)),
+                  piles.get(History.getTarget(move)), History.isFlip(move));
+      }
+   }
+
+   /**
+    * Shuffle the cards in the given Pile. Note: this move cannot be undone, so
+    * it should only be called on a CardMover that is going to be completed with
+    * Board's initialCommit method.
+    * 
+    * @param pile
+    */
+   public void shuffle(Pile pile)
+   {
+      pile.toggleHash(0);
+      pile.shuffle();
+      pile.toggleHash(0);
+   }
+
+   /**
+    * Shuffle the cards in the given Pile into the order for the given deal
+    * number; the same number always produces the same order (see
+    * {@link Shuffle#forDeal(long)}). Note: this move cannot be undone, so it
+    * should only be called on a CardMover that is going to be completed with
+    * Board's initialCommit method.
+    * 
+    * @param pile
+    * @param dealNumber
+    */
+   public void shuffle(Pile pile, long dealNumber)
+   {
+      pile.toggleHash(0);
+      pile.shuffle(Shuffle.forDeal(dealNumber));
+      pile.toggleHash(0);
+   }
+
+   /**
+    * Move the given number of cards from one Pile to the other, either as in
+    * {@link #move(int, Pile, Pile)} or, if flip is true, as in
+    * {@link #flipMove(int, Pile, Pile)}, without recording the move. Undoing a
+    * move is the same as making it again with the piles swapped. The cards
+    * are moved as one run (see {@link CardStack#moveTo(CardStack, int,
+    * boolean)}), so the cost hardly depends on how many there are, apart
+    * from updating the position hash of the board for just the cards that
+    * move.
+    * 
+    * @param numCards
+    * @param source
+    * @param target
+    * @param flip
+    */
+   static void transfer(int numCards, Pile source, Pile target, boolean flip)
+   {
+      int from = source.size() - numCards;
+      source.toggleHash(from);
+      source.moveTo(target, from, flip);
+      target.toggleHash(target.size() - numCards);
+   }
+
+   /**
+    * Reverse the effect of the moves recorded in this object.
+    */
+   void undo()
+   {
+      for (int i = size - 1; i >= 0; i--) {
+         int move = moves[i];
+         transfer(History.getCount(move), piles.get(History.getTarget(move)),
+                  piles.get(History.getSource(move)), History.isFlip(move));
+      }
+   }
+
+   // The moves, packed by History.encode, with pile ids indexing "piles"
+   private int[] moves;
+   private int size;
+
+   private final List<Pile> piles;
+
+   private static final int INITIAL_CAPACITY = 4;
+}
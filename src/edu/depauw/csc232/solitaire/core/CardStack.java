@@ -0,0 +1,398 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             CardStack.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.core;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import edu.depauw.csc232.solitaire.model.Rank;
+import edu.depauw.csc232.solitaire.model.Shuffle;
+import edu.depauw.csc232.solitaire.model.Suit;
+
+/**
+ * A CardStack is an object that holds a collection of cards. It keeps track of
+ * the position at which they are to be displayed, and how far each card is
+ * fanned out from the one below it, but knows nothing about drawing them; a
+ * {@link StackListener} may be attached to be told when the cards or the
+ * position change, so that a display can keep its image up to date. The cards
+ * are kept as an array of their one-byte codes (see {@link Card#getCode()}),
+ * so that moving a run of cards between stacks is an array copy. It is a
+ * common superclass of Pile (stack of cards on a Board) and Packet (stack of
+ * cards being dragged). Note that the methods that modify a CardStack are all
+ * package-private, so they may not be used from outside the core package. A
+ * {@link CardMover} must be used to make changes to a CardStack.
+ * 
+ * @author bhoward
+ */
+public abstract class CardStack
+{
+   /**
+    * Construct an initially empty CardStack, where each successive card will be
+    * offset by the given amounts horizontally and vertically.
+    * 
+    * @param horizontal
+    * @param vertical
+    */
+   protected CardStack(int horizontal, int vertical)
+   {
+      this.cards = new byte[INITIAL_CAPACITY];
+      this.xOFFSET = horizontal * HOFFSET;
+      this.yOFFSET = vertical * VOFFSET;
+   }
+
+   /**
+    * Add one card to this stack.
+    * 
+    * @param card
+    */
+   void add(Card card)
+   {
+      ensureCapacity(size + 1);
+      cards[size++] = (byte) card.getCode();
+      invalidateFrom(size - 1);
+   }
+
+   /**
+    * Add all 13 cards of the given suit to this collection, in order from Ace
+    * to King.
+    * 
+    * @param suit
+    */
+   void addSuit(Suit suit)
+   {
+      ensureCapacity(size + 13);
+      int n = size;
+      for (Rank rank : Rank.values()) {
+         cards[size++] = (byte) Card.of(rank, suit).getCode();
+      }
+      invalidateFrom(n);
+   }
+
+   /**
+    * Copy the codes (see {@link Card#getCode()}) of the cards in this stack,
+    * from the bottom up, into the given array.
+    * 
+    * @param dest
+    * @param offset
+    *           the index in the array at which to put the code of the bottom
+    *           card
+    */
+   public void copyCodes(byte[] dest, int offset)
+   {
+      System.arraycopy(cards, 0, dest, offset, size);
+   }
+
+   /**
+    * Deal one card off the top of this stack.
+    * 
+    * @return the card
+    */
+   Card deal()
+   {
+      Card card = Card.fromCode(cards[--size]);
+      invalidateFrom(size);
+      return card;
+   }
+
+   private void ensureCapacity(int needed)
+   {
+      if (needed > cards.length) {
+         cards = Arrays.copyOf(cards, Math.max(needed, cards.length * 2));
+      }
+   }
+
+   // Tell the listener, if any, that the position has changed
+   private void fireMoved()
+   {
+      if (listener != null) {
+         listener.stackMoved(this);
+      }
+   }
+
+   /**
+    * @return the bottom card in the stack
+    */
+   public Card getBottom()
+   {
+      return getFromBottom(0);
+   }
+
+   /**
+    * Return the card at the given index, counting from the bottom of this
+    * stack at index 0.
+    * 
+    * @param index
+    * @return the card
+    */
+   public Card getFromBottom(int index)
+   {
+      if (index >= size) {
+         throw new IndexOutOfBoundsException(
+                  "Index " + index + " in a stack of " + size);
+      }
+      return Card.fromCode(cards[index]);
+   }
+
+   /**
+    * Return the card at the given index, counting from the top of this stack at
+    * index 1.
+    * 
+    * @param index
+    * @return
+    */
+   public Card getFromTop(int index)
+   {
+      return getFromBottom(size - index);
+   }
+
+   /**
+    * @return the distance in pixels that each card is shifted to the right of
+    *         the one below it
+    */
+   public int getHorizontalOffset()
+   {
+      return xOFFSET;
+   }
+
+   /**
+    * @return the top card in the stack
+    */
+   public Card getTop()
+   {
+      return getFromBottom(size - 1);
+   }
+
+   /**
+    * @return the distance in pixels that each card is shifted down from the
+    *         one below it
+    */
+   public int getVerticalOffset()
+   {
+      return yOFFSET;
+   }
+
+   /**
+    * @return the current x-coordinate of the upper-left corner of this stack
+    */
+   public int getX()
+   {
+      return x;
+   }
+
+   /**
+    * @return the current y-coordinate of the upper-left corner of this stack
+    */
+   public int getY()
+   {
+      return y;
+   }
+
+   /**
+    * Record that the cards from the given index (counting from the bottom at
+    * index 0) to the top may have changed, while those below it have not.
+    * 
+    * @param index
+    */
+   protected void invalidateFrom(int index)
+   {
+      if (listener != null) {
+         listener.cardsChanged(this, index);
+      }
+   }
+
+   /**
+    * This should be called whenever the underlying collection of cards has
+    * changed.
+    */
+   protected void invalidateImage()
+   {
+      invalidateFrom(0);
+   }
+
+   /**
+    * @return true if the stack is empty
+    */
+   public boolean isEmpty()
+   {
+      return size == 0;
+   }
+
+   /**
+    * Move the cards of this stack from the given index (counting from the
+    * bottom at 0) to the top onto the target stack. The run is moved with a
+    * single array copy, or if flip is true, it is reversed and each card
+    * turned over in a single pass, so that the top card of this stack ends
+    * up at the bottom of the run on the target. The target may be this stack
+    * itself, in which case only a flipped move changes anything. Each stack
+    * tells its listener of the change once.
+    * 
+    * @param target
+    * @param from
+    * @param flip
+    */
+   void moveTo(CardStack target, int from, boolean flip)
+   {
+      int n = size - from;
+      if (target == this) {
+         if (flip) {
+            for (int i = from, j = size - 1; i <= j; i++, j--) {
+               byte temp = cards[i];
+               cards[i] = (byte) (cards[j] ^ Card.FACE_UP);
+               cards[j] = (byte) (temp ^ Card.FACE_UP);
+            }
+            invalidateFrom(from);
+         }
+         return;
+      }
+
+      target.ensureCapacity(target.size + n);
+      if (flip) {
+         for (int i = 0; i < n; i++) {
+            target.cards[target.size + i] = (byte) (cards[size - 1 - i]
+               ^ Card.FACE_UP);
+         }
+      }
+      else {
+         System.arraycopy(cards, from, target.cards, target.size, n);
+      }
+      target.size += n;
+      size = from;
+      invalidateFrom(from);
+      target.invalidateFrom(target.size - n);
+   }
+
+   /**
+    * Return a view of the cards of this stack from the given index (counting
+    * from the bottom at 0) to the top, in order. The view may not be changed,
+    * and it follows any later changes to this stack.
+    * 
+    * @param from
+    * @return the cards
+    */
+   List<Card> run(int from)
+   {
+      return new AbstractList<Card>()
+      {
+         @Override
+         public Card get(int index)
+         {
+            return getFromBottom(from + index);
+         }
+
+         @Override
+         public int size()
+         {
+            return size - from;
+         }
+      };
+   }
+
+   /**
+    * Replace all of the cards in this stack with those whose codes (see
+    * {@link Card#getCode()}) are in the given part of an array, from the
+    * bottom up.
+    * 
+    * @param codes
+    * @param offset
+    * @param length
+    */
+   void setCodes(byte[] codes, int offset, int length)
+   {
+      ensureCapacity(length);
+      System.arraycopy(codes, offset, cards, 0, length);
+      size = length;
+      invalidateImage();
+   }
+
+   /**
+    * Set the listener to be told whenever the cards or the position of this
+    * stack change. A stack has at most one listener, normally the object
+    * that displays it.
+    * 
+    * @param listener
+    *           the listener, or null for none
+    */
+   public void setListener(StackListener listener)
+   {
+      this.listener = listener;
+   }
+
+   /**
+    * @param x
+    *           the new x-coordinate of the upper-left corner of this stack
+    */
+   public void setX(int x)
+   {
+      if (x != this.x) {
+         this.x = x;
+         fireMoved();
+      }
+   }
+
+   /**
+    * @param y
+    *           the new y-coordinate of the upper-left corner of this stack
+    */
+   public void setY(int y)
+   {
+      if (y != this.y) {
+         this.y = y;
+         fireMoved();
+      }
+   }
+
+   /**
+    * Shuffle the cards in this stack.
+    */
+   void shuffle()
+   {
+      shuffle(new SplittableRandom());
+   }
+
+   /**
+    * Shuffle the cards in this stack using the given random stream.
+    * 
+    * @param random
+    */
+   void shuffle(SplittableRandom random)
+   {
+      Shuffle.shuffle(cards, size, random);
+      invalidateImage();
+   }
+
+   /**
+    * @return the number of cards in the stack
+    */
+   public int size()
+   {
+      return size;
+   }
+
+   private int x;
+   private int y;
+
+   protected final int xOFFSET;
+   protected final int yOFFSET;
+
+   // The codes of the cards, from the bottom up, in the first "size" entries
+   byte[] cards;
+   int size;
+
+   private StackListener listener;
+
+   protected static final int HOFFSET = 12;
+
+   protected static final int VOFFSET = 18;
+
+   private static final int INITIAL_CAPACITY = 8;
+}
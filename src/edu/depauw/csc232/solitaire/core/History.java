@@ -0,0 +1,632 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             History.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The undo/redo history of a Board. Each recorded move is packed into a single
+ * int (see {@link #encode(int, int, int, boolean)}), and the moves are kept in
+ * one array, oldest first; the last move of each user action (everything
+ * recorded by one CardMover) is marked, so that undo and redo step over whole
+ * actions. Moves before the cursor have been played, and moves after it are
+ * available for redo. Piles are referred to by a small id, assigned the first
+ * time each pile is seen.
+ * <p>
+ * Every {@link #SNAPSHOT_INTERVAL} actions, the complete arrangement of the
+ * cards is also saved, one byte per card, so that a distant point in the
+ * history can be reached without replaying every move in between.
+ * <p>
+ * The moves and snapshots together are kept under a limit on their size in
+ * bytes. When recording an action would go over the limit, the oldest actions
+ * are forgotten, so they can no longer be undone.
+ * 
+ * @author bhoward
+ */
+final class History
+{
+   /**
+    * Construct an empty history.
+    * 
+    * @param maxBytes
+    *           the most memory to use for moves and snapshots
+    */
+   History(int maxBytes)
+   {
+      this.piles = new ArrayList<>();
+      this.ids = new IdentityHashMap<>();
+      this.log = new int[INITIAL_CAPACITY];
+      this.snapshots = new ArrayList<>();
+      setLimit(maxBytes);
+   }
+
+   /**
+    * Add a pile that is not yet in the history, such as one just placed on
+    * the table. Since no recorded move has touched it, its current cards are
+    * also its cards in every existing snapshot, and are added to them.
+    * 
+    * @param pile
+    */
+   void add(Pile pile)
+   {
+      if (ids.containsKey(pile)) {
+         return;
+      }
+
+      register(pile);
+      byte[] cards = describe(pile);
+      for (Snapshot snapshot : snapshots) {
+         if (snapshot.piles == piles.size() - 1) {
+            snapshotBytes += cards.length;
+            snapshot.append(cards);
+         }
+      }
+   }
+
+   /**
+    * @return true if there is an action to redo
+    */
+   boolean canRedo()
+   {
+      return cursor < length;
+   }
+
+   /**
+    * @return true if there is an action to undo
+    */
+   boolean canUndo()
+   {
+      return cursor > 0;
+   }
+
+   /**
+    * Forget all recorded actions, and take a snapshot of the current
+    * arrangement as the new starting point.
+    */
+   void clear()
+   {
+      length = 0;
+      cursor = 0;
+      base = 0;
+      actions = 0;
+      firstAction = 0;
+      lastAction = 0;
+      snapshots.clear();
+      snapshotBytes = 0;
+      takeSnapshot();
+   }
+
+   /**
+    * @return the number of actions that can be undone or redone, which is
+    *         one less than the number of positions in the history
+    */
+   int getLength()
+   {
+      return (int) (lastAction - firstAction);
+   }
+
+   /**
+    * @return the approximate number of bytes used by the moves and snapshots
+    */
+   long getMemoryUse()
+   {
+      return (long) length * Integer.BYTES + snapshotBytes;
+   }
+
+   /**
+    * @param id
+    * @return the pile with the given id
+    */
+   Pile getPile(int id)
+   {
+      return piles.get(id);
+   }
+
+   /**
+    * @return the number of piles that have been given ids
+    */
+   int getPileCount()
+   {
+      return piles.size();
+   }
+
+   /**
+    * @return the current position, from 0 (nothing left to undo) to
+    *         {@link #getLength()} (nothing left to redo)
+    */
+   int getPosition()
+   {
+      return (int) (actions - firstAction);
+   }
+
+   /**
+    * Return the id for the given pile, assigning a new one if needed.
+    * 
+    * @param pile
+    * @return the id
+    */
+   int register(Pile pile)
+   {
+      Integer id = ids.get(pile);
+      if (id == null) {
+         if (piles.size() > MASK) {
+            throw new IllegalStateException("Too many piles in the history");
+         }
+         id = piles.size();
+         piles.add(pile);
+         ids.put(pile, id);
+      }
+      return id;
+   }
+
+   /**
+    * Record the moves made by the given CardMover as a single action, after
+    * the current point in the history. Any actions available for redo are
+    * discarded, and if needed, the oldest actions are forgotten to stay under
+    * the size limit.
+    * 
+    * @param mover
+    */
+   void record(CardMover mover)
+   {
+      int n = mover.getMoveCount();
+      if (n == 0) {
+         return;
+      }
+
+      // A new action replaces whatever could have been redone
+      length = cursor;
+      lastAction = actions;
+      dropSnapshotsAfter(base + cursor);
+
+      ensureCapacity(length + n);
+      List<Pile> moverPiles = mover.getPiles();
+      for (int i = 0; i < n; i++) {
+         int move = mover.getMove(i);
+         int source = register(moverPiles.get(getSource(move)));
+         int target = register(moverPiles.get(getTarget(move)));
+         log[length++] = encode(source, target, getCount(move), isFlip(move));
+      }
+      log[length - 1] |= END;
+      cursor = length;
+
+      actions++;
+      lastAction = actions;
+      if (actions % SNAPSHOT_INTERVAL == 0) {
+         takeSnapshot();
+      }
+      trim();
+   }
+
+   /**
+    * Replay the next action, if any.
+    * 
+    * @param changed
+    *           a collection to which each pile changed by the action is added
+    * @return true if there was an action to redo
+    */
+   boolean redo(Collection<Pile> changed)
+   {
+      if (cursor == length) {
+         return false;
+      }
+
+      int move;
+      do {
+         move = log[cursor++];
+         Pile source = piles.get(getSource(move));
+         Pile target = piles.get(getTarget(move));
+         CardMover.transfer(getCount(move), source, target, isFlip(move));
+         changed.add(source);
+         changed.add(target);
+      } while ((move & END) == 0);
+
+      actions++;
+      return true;
+   }
+
+   /**
+    * Move to the given position in the history, as if by undoing or redoing
+    * the actions in between. If a snapshot taken before the position is
+    * closer to it than the current position is, the snapshot is restored and
+    * only the actions after it are replayed.
+    * 
+    * @param position
+    *           the position, from 0 to {@link #getLength()}
+    * @param changed
+    *           a collection to which each pile changed by the seek is added
+    * @return true if the position changed
+    */
+   boolean seek(int position, Collection<Pile> changed)
+   {
+      if (position < 0 || position > getLength()) {
+         throw new IndexOutOfBoundsException("History position " + position
+            + " is not between 0 and " + getLength());
+      }
+
+      int target = findMove(firstAction + position);
+      if (target == cursor) {
+         return false;
+      }
+
+      Snapshot snapshot = findSnapshot(base + target);
+      if (snapshot != null && base + target - snapshot.position
+         + RESTORE_COST < Math.abs(target - cursor)) {
+         restore(snapshot, changed);
+      }
+
+      while (cursor < target) {
+         redo(changed);
+      }
+      while (cursor > target) {
+         undo(changed);
+      }
+      return true;
+   }
+
+   /**
+    * Change the most memory to use for moves and snapshots. If the history is
+    * already larger than this, the oldest actions are forgotten.
+    * 
+    * @param maxBytes
+    */
+   void setLimit(int maxBytes)
+   {
+      if (maxBytes < MIN_BYTES) {
+         throw new IllegalArgumentException(
+                  "History limit must be at least " + MIN_BYTES + " bytes");
+      }
+      this.maxBytes = maxBytes;
+      trim();
+   }
+
+   /**
+    * Reverse the most recent action, if any.
+    * 
+    * @param changed
+    *           a collection to which each pile changed by the action is added
+    * @return true if there was an action to undo
+    */
+   boolean undo(Collection<Pile> changed)
+   {
+      if (cursor == 0) {
+         return false;
+      }
+
+      do {
+         int move = log[--cursor];
+         Pile source = piles.get(getSource(move));
+         Pile target = piles.get(getTarget(move));
+         CardMover.transfer(getCount(move), target, source, isFlip(move));
+         changed.add(source);
+         changed.add(target);
+      } while (cursor > 0 && (log[cursor - 1] & END) == 0);
+
+      actions--;
+      return true;
+   }
+
+   // Return the code of each card in the pile, after its size
+   private static byte[] describe(Pile pile)
+   {
+      byte[] result = new byte[pile.size() + 1];
+      result[0] = (byte) pile.size();
+      pile.copyCodes(result, 1);
+      return result;
+   }
+
+   // Forget the snapshots of positions after the given absolute move index,
+   // since the moves leading to them are about to be replaced
+   private void dropSnapshotsAfter(long position)
+   {
+      for (int i = snapshots.size() - 1; i >= 0
+         && snapshots.get(i).position > position; i--) {
+         snapshotBytes -= snapshots.remove(i).size();
+      }
+   }
+
+   private void ensureCapacity(int needed)
+   {
+      if (needed > log.length) {
+         int[] newLog = new int[Math.max(needed, log.length * 2)];
+         System.arraycopy(log, 0, newLog, 0, length);
+         log = newLog;
+      }
+   }
+
+   // Return the index in the log of the end of the given action (counting
+   // from the last clear), by stepping over actions from the cursor
+   private int findMove(long action)
+   {
+      int index = cursor;
+      for (long a = actions; a < action; a++) {
+         while ((log[index] & END) == 0) {
+            index++;
+         }
+         index++;
+      }
+      for (long a = actions; a > action; a--) {
+         index--;
+         while (index > 0 && (log[index - 1] & END) == 0) {
+            index--;
+         }
+      }
+      return index;
+   }
+
+   // Return the latest snapshot at or before the given absolute move index
+   // that includes every pile, or null if there is none
+   private Snapshot findSnapshot(long position)
+   {
+      for (int i = snapshots.size() - 1; i >= 0; i--) {
+         Snapshot snapshot = snapshots.get(i);
+         if (snapshot.position <= position) {
+            return (snapshot.piles == piles.size()) ? snapshot : null;
+         }
+      }
+      return null;
+   }
+
+   // Put every pile back the way it was when the snapshot was taken, and
+   // move the cursor there
+   private void restore(Snapshot snapshot, Collection<Pile> changed)
+   {
+      byte[] state = snapshot.state;
+      int i = 0;
+      for (Pile pile : piles) {
+         int size = state[i++] & 0xFF;
+         pile.toggleHash(0);
+         pile.setCodes(state, i, size);
+         pile.toggleHash(0);
+         i += size;
+         changed.add(pile);
+      }
+
+      cursor = (int) (snapshot.position - base);
+      actions = snapshot.action;
+   }
+
+   // Record the arrangement of every known pile at the cursor
+   private void takeSnapshot()
+   {
+      int size = piles.size();
+      for (Pile pile : piles) {
+         size += pile.size();
+      }
+
+      byte[] state = new byte[size];
+      int i = 0;
+      for (Pile pile : piles) {
+         state[i++] = (byte) pile.size();
+         pile.copyCodes(state, i);
+         i += pile.size();
+      }
+
+      Snapshot snapshot = new Snapshot(base + cursor, actions, piles.size(),
+               state);
+      snapshots.add(snapshot);
+      snapshotBytes += snapshot.size();
+   }
+
+   // Forget the oldest actions, and the snapshots taken before them, until
+   // the history fits in three quarters of the limit (so that trimming is not
+   // needed again right away). The action just recorded is always kept.
+   private void trim()
+   {
+      if (getMemoryUse() <= maxBytes) {
+         return;
+      }
+
+      long target = maxBytes / 4 * 3;
+      int drop = 0;
+      int dropActions = 0;
+      while (drop < cursor && getMemoryUse() - drop * Integer.BYTES > target) {
+         // Skip to the end of the oldest remaining action
+         while ((log[drop] & END) == 0) {
+            drop++;
+         }
+         drop++;
+         dropActions++;
+
+         while (!snapshots.isEmpty()
+            && snapshots.get(0).position < base + drop) {
+            snapshotBytes -= snapshots.remove(0).size();
+         }
+      }
+
+      if (drop == cursor && cursor > 0) {
+         // Keep the most recent action, even if it is larger than the limit
+         drop--;
+         while (drop > 0 && (log[drop - 1] & END) == 0) {
+            drop--;
+         }
+         dropActions--;
+      }
+
+      System.arraycopy(log, drop, log, 0, length - drop);
+      length -= drop;
+      cursor -= drop;
+      base += drop;
+      firstAction += dropActions;
+
+      // Do not hold on to a much larger array than the limit allows
+      int capacity = Math.max(INITIAL_CAPACITY, maxBytes / Integer.BYTES);
+      if (log.length > capacity * 2 && length <= capacity) {
+         int[] newLog = new int[capacity];
+         System.arraycopy(log, 0, newLog, 0, length);
+         log = newLog;
+      }
+   }
+
+   /**
+    * Pack a move of the given number of cards, from the pile with the source
+    * id to the pile with the target id, into an int. Each of the three
+    * numbers must be less than 1024.
+    * 
+    * @param source
+    * @param target
+    * @param count
+    * @param flip
+    *           true if the cards are flipped over (and reversed) by the move
+    * @return the packed move
+    */
+   static int encode(int source, int target, int count, boolean flip)
+   {
+      if (source > MASK || target > MASK || count > MASK) {
+         throw new IllegalArgumentException("Move out of range: " + count
+            + " cards from pile " + source + " to pile " + target);
+      }
+      return source | (target << TARGET_SHIFT) | (count << COUNT_SHIFT)
+         | (flip ? FLIP : 0);
+   }
+
+   /**
+    * @param move
+    * @return true if the packed move is the last of its action
+    */
+   static boolean endsAction(int move)
+   {
+      return (move & END) != 0;
+   }
+
+   /**
+    * @param move
+    * @return the packed move, marked as the last of its action
+    */
+   static int endAction(int move)
+   {
+      return move | END;
+   }
+
+   /**
+    * @param move
+    * @return the number of cards moved by the packed move
+    */
+   static int getCount(int move)
+   {
+      return (move >>> COUNT_SHIFT) & MASK;
+   }
+
+   /**
+    * @param move
+    * @return the source pile id of the packed move
+    */
+   static int getSource(int move)
+   {
+      return move & MASK;
+   }
+
+   /**
+    * @param move
+    * @return the target pile id of the packed move
+    */
+   static int getTarget(int move)
+   {
+      return (move >>> TARGET_SHIFT) & MASK;
+   }
+
+   /**
+    * @param move
+    * @return true if the packed move flips the cards over
+    */
+   static boolean isFlip(int move)
+   {
+      return (move & FLIP) != 0;
+   }
+
+   // Pile ids, in order of first appearance
+   private final List<Pile> piles;
+   private final Map<Pile, Integer> ids;
+
+   // The moves, oldest first; the first "length" are in use, and the first
+   // "cursor" of those have been played
+   private int[] log;
+   private int length;
+   private int cursor;
+
+   // Number of moves forgotten from the start of the log, so that the move
+   // at log[i] is move number base + i since the last clear
+   private long base;
+
+   // Number of actions played since the last clear, number forgotten from
+   // the start of the log, and number including those available for redo
+   private long actions;
+   private long firstAction;
+   private long lastAction;
+
+   private final List<Snapshot> snapshots;
+   private long snapshotBytes;
+
+   private int maxBytes;
+
+   /**
+    * Number of actions between snapshots.
+    */
+   static final int SNAPSHOT_INTERVAL = 32;
+
+   private static final int MASK = 0x3FF;
+   private static final int TARGET_SHIFT = 10;
+   private static final int COUNT_SHIFT = 20;
+   private static final int FLIP = 1 << 30;
+   private static final int END = 1 << 31;
+
+   // Restoring a snapshot is worth about this many moves
+   private static final int RESTORE_COST = 16;
+
+   private static final int INITIAL_CAPACITY = 256;
+
+   // The limit may not be set lower than this
+   private static final int MIN_BYTES = 4096;
+
+   // The arrangement of the cards after a given number of moves
+   private static final class Snapshot
+   {
+      Snapshot(long position, long action, int piles, byte[] state)
+      {
+         this.position = position;
+         this.action = action;
+         this.piles = piles;
+         this.state = state;
+      }
+
+      // Add the description of one more pile
+      void append(byte[] cards)
+      {
+         byte[] newState = Arrays.copyOf(state, state.length + cards.length);
+         System.arraycopy(cards, 0, newState, state.length, cards.length);
+         state = newState;
+         piles++;
+      }
+
+      // Approximate memory used, including the objects themselves
+      long size()
+      {
+         return state.length + OVERHEAD;
+      }
+
+      // Number of moves, and of actions, since the last clear
+      final long position;
+      final long action;
+
+      // Number of piles described
+      int piles;
+
+      // For each pile, in id order, its size and then its cards, bottom up
+      byte[] state;
+
+      private static final int OVERHEAD = 48;
+   }
+}
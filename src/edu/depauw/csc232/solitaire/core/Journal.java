@@ -0,0 +1,306 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             Journal.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An append-only file recording everything that happens to a Board's history
+ * after the cards are dealt, so that the game can be rebuilt after the window
+ * is closed or the program stops. The file starts with a header holding the
+ * seed of the deal (such as the deal number), which is all that is needed to
+ * deal the same cards again. Each action recorded by a CardMover follows as a
+ * tag byte and its moves, packed as by
+ * {@link History#encode(int, int, int, boolean)} with the last one marked;
+ * each undo, redo, or jump in the history follows as a tag byte and the
+ * number of actions moved (negative to go back). An action of one move takes
+ * five bytes, and one that also turns over the card it uncovers takes nine.
+ * <p>
+ * Records are flushed to the file as they are written, so that no more than
+ * the action in progress is lost if the program stops. When the journal is
+ * opened again, its records are replayed on the newly dealt table, straight
+ * into the history without drawing anything, and a record cut short at the
+ * end of the file is dropped. Pile ids are the ones given by the History, so
+ * the game must deal and lay out its piles in the same order each time.
+ * 
+ * @author bhoward
+ */
+final class Journal
+{
+   private Journal(File file, DataOutputStream out)
+   {
+      this.file = file;
+      this.out = out;
+   }
+
+   /**
+    * Open the journal in the given file, which should be done just after the
+    * game is dealt and laid out. If the file already holds a journal, it
+    * must be for the same seed, and its records are replayed into the
+    * history; otherwise a new journal is started.
+    * 
+    * @param file
+    * @param seed
+    * @param history
+    * @param changed
+    *           a collection to which each pile changed by the replay is
+    *           added
+    * @return the open journal, ready for more records
+    * @throws IOException
+    *            if the file cannot be read or written, or holds a journal
+    *            for a different seed
+    */
+   static Journal open(File file, long seed, History history,
+            Collection<Pile> changed) throws IOException
+   {
+      long end;
+      if (file.length() == 0) {
+         try (DataOutputStream header = new DataOutputStream(
+                  new FileOutputStream(file))) {
+            header.writeInt(MAGIC);
+            header.writeLong(seed);
+         }
+         end = HEADER;
+      }
+      else {
+         ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+         long fileSeed = readHeader(file, buffer);
+         if (fileSeed != seed) {
+            throw new IOException(file + " is a journal for " + fileSeed
+               + ", not " + seed);
+         }
+         end = replay(buffer, history, changed);
+         if (end < buffer.limit()) {
+            // Drop the record that was being written when the program stopped
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+               raf.setLength(end);
+            }
+         }
+      }
+
+      return new Journal(file, new DataOutputStream(new BufferedOutputStream(
+               new FileOutputStream(file, true))));
+   }
+
+   /**
+    * Append the moves recorded by the given CardMover, which have just been
+    * added to the history, as a single action.
+    * 
+    * @param mover
+    * @param history
+    */
+   void action(CardMover mover, History history)
+   {
+      if (out == null) {
+         return;
+      }
+
+      try {
+         int n = mover.getMoveCount();
+         List<Pile> moverPiles = mover.getPiles();
+         out.writeByte(ACTION);
+         for (int i = 0; i < n; i++) {
+            int move = mover.getMove(i);
+            int source = history.register(
+                     moverPiles.get(History.getSource(move)));
+            int target = history.register(
+                     moverPiles.get(History.getTarget(move)));
+            move = History.encode(source, target, History.getCount(move),
+                     History.isFlip(move));
+            out.writeInt((i == n - 1) ? History.endAction(move) : move);
+         }
+         out.flush();
+      }
+      catch (IOException e) {
+         fail(e);
+      }
+   }
+
+   /**
+    * Stop writing to the journal, and close its file.
+    */
+   void close()
+   {
+      if (out != null) {
+         try {
+            out.close();
+         }
+         catch (IOException e) {
+            e.printStackTrace();
+         }
+         out = null;
+      }
+   }
+
+   /**
+    * Append a move through the history by the given number of actions, as
+    * by undo (-1), redo (+1), or a jump.
+    * 
+    * @param delta
+    */
+   void seek(int delta)
+   {
+      if (out == null || delta == 0) {
+         return;
+      }
+
+      try {
+         out.writeByte(SEEK);
+         out.writeInt(delta);
+         out.flush();
+      }
+      catch (IOException e) {
+         fail(e);
+      }
+   }
+
+   // Report a failure to write, and stop keeping the journal rather than
+   // leave a gap in it
+   private void fail(IOException e)
+   {
+      System.err.println("Journal " + file + " stopped:");
+      e.printStackTrace();
+      close();
+   }
+
+   /**
+    * Read the seed from the header of the journal in the given file.
+    * 
+    * @param file
+    * @return the seed
+    * @throws IOException
+    *            if the file cannot be read or is not a journal
+    */
+   static long readSeed(File file) throws IOException
+   {
+      try (DataInputStream in = new DataInputStream(
+               new FileInputStream(file))) {
+         byte[] header = new byte[HEADER];
+         in.readFully(header);
+         return readHeader(file, ByteBuffer.wrap(header));
+      }
+      catch (EOFException e) {
+         throw new IOException(file + " is not a journal", e);
+      }
+   }
+
+   // Check the magic number and return the seed, leaving the buffer just
+   // after the header
+   private static long readHeader(File file, ByteBuffer buffer)
+            throws IOException
+   {
+      if (buffer.remaining() < HEADER || buffer.getInt() != MAGIC) {
+         throw new IOException(file + " is not a journal");
+      }
+      return buffer.getLong();
+   }
+
+   // Apply the records from the buffer to the history, stopping at the end or
+   // at the first record that is cut short or does not fit the piles; return
+   // the offset just after the last record applied
+   private static long replay(ByteBuffer buffer, History history,
+            Collection<Pile> changed)
+   {
+      int end = buffer.position();
+      while (buffer.hasRemaining()) {
+         byte tag = buffer.get();
+         if (tag == ACTION) {
+            int start = buffer.position();
+            if (!checkAction(buffer, history)) {
+               break;
+            }
+
+            buffer.position(start);
+            CardMover mover = new CardMover();
+            int move;
+            do {
+               move = buffer.getInt();
+               Pile source = history.getPile(History.getSource(move));
+               Pile target = history.getPile(History.getTarget(move));
+               if (History.isFlip(move)) {
+                  mover.flipMove(History.getCount(move), source, target);
+               }
+               else {
+                  mover.move(History.getCount(move), source, target);
+               }
+            } while (!History.endsAction(move));
+            history.record(mover);
+            changed.addAll(mover.getPiles());
+         }
+         else if (tag == SEEK && buffer.remaining() >= Integer.BYTES) {
+            long position = (long) history.getPosition() + buffer.getInt();
+            history.seek((int) Math.max(0,
+                     Math.min(position, history.getLength())), changed);
+         }
+         else {
+            break;
+         }
+         end = buffer.position();
+      }
+      return end;
+   }
+
+   // Return true if the buffer holds a whole action whose moves all name
+   // known piles and take no more cards than the piles will have; the
+   // buffer is left somewhere after the start of the action
+   private static boolean checkAction(ByteBuffer buffer, History history)
+   {
+      int piles = history.getPileCount();
+      int[] sizes = new int[piles];
+      for (int i = 0; i < piles; i++) {
+         sizes[i] = history.getPile(i).size();
+      }
+
+      int move;
+      do {
+         if (buffer.remaining() < Integer.BYTES) {
+            return false;
+         }
+         move = buffer.getInt();
+         int source = History.getSource(move);
+         int target = History.getTarget(move);
+         int count = History.getCount(move);
+         if (source >= piles || target >= piles || count > sizes[source]) {
+            return false;
+         }
+         sizes[source] -= count;
+         sizes[target] += count;
+      } while (!History.endsAction(move));
+      return true;
+   }
+
+   private final File file;
+
+   // Null once the journal has been closed
+   private DataOutputStream out;
+
+   // "SJNL" in ASCII, marking a journal
+   private static final int MAGIC = 0x534A4E4C;
+
+   // Bytes in the header: the magic number and the seed
+   private static final int HEADER = Integer.BYTES + Long.BYTES;
+
+   private static final byte ACTION = 1;
+
+   private static final byte SEEK = 2;
+}
@@ -8,10 +8,7 @@
 // Online sources:   None
 ////////////////////////////////////////////////////////////////////////////////
 
-package edu.depauw.csc232.solitaire.ui;
-
-import java.awt.event.MouseEvent;
-import java.util.List;
+package edu.depauw.csc232.solitaire.core;
 
 /**
  * A Packet is a CardStack that contains a collection of cards currently being
@@ -21,31 +18,24 @@ import java.util.List;
  */
 public class Packet extends CardStack
 {
-   // Package-private constructor for a packet with a given number of cards
-   // taken from the origin Pile. The cards are (perhaps temporarily) removed
-   // from the origin.
-   Packet(Pile origin, List<Card> selected, int horizontal, int vertical)
+   // Package-private constructor for a packet with the cards of the origin
+   // Pile from the given index to the top. The cards are (perhaps
+   // temporarily) removed from the origin.
+   Packet(Pile origin, int from, int horizontal, int vertical)
    {
       super(horizontal, vertical);
       this.origin = origin;
 
-      addAll(selected);
-      int n = selected.size();
-      for (int i = 0; i < n; i++) {
-         origin.deal();
-      }
+      origin.moveTo(this, from, false);
    }
 
    /**
     * Notify this packet that its current drag motion has been cancelled. The
     * cards are returned to the origin pile.
-    * 
-    * @param event
-    *           the mouse event that cancelled the drag
     */
-   void cancelDrag(MouseEvent event)
+   void cancelDrag()
    {
-      origin.addAll(cards);
+      moveTo(origin, 0, false);
    }
 
    /**
@@ -57,20 +47,18 @@ public class Packet extends CardStack
     *           the target of the drop
     * @param mover
     *           the CardMover to use to move the cards
-    * @param event
-    *           the mouseReleased event for the drop
     */
-   void endDrag(Pile target, CardMover mover, MouseEvent event)
+   void endDrag(Pile target, CardMover mover)
    {
       // allow the CardMover to complete the move
       mover.move(this, target);
-      origin.finishDrag(target, mover, event);
+      origin.finishDrag(target, mover);
    }
 
    /**
     * @return the pile from which this packet was dragged
     */
-   Pile getOrigin()
+   public Pile getOrigin()
    {
       return origin;
    }
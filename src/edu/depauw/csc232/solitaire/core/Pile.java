@@ -0,0 +1,257 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             Pile.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.core;
+
+import java.util.List;
+
+/**
+ * A Pile is a CardStack located on a game Board. It has a PileStrategy to be
+ * able to respond to clicks and drag/drop events, which the Board passes on
+ * from whatever user interface is showing it.
+ * 
+ * @author bhoward
+ */
+public class Pile extends CardStack
+{
+   private Pile(PileStrategy strategy, int horizontal, int vertical)
+   {
+      super(horizontal, vertical);
+      this.strategy = strategy;
+   }
+
+   /**
+    * Return whether the given pile may be dragged. This could be used to change
+    * the mouse appearance, for example. To avoid lag, this should do minimal
+    * computation and return quickly.
+    * 
+    * @return true if this pile will respond to being dragged
+    */
+   public boolean canDrag()
+   {
+      // true if there is at least one card to be dragged, and the strategy says
+      // OK
+      return size != 0 && strategy.checkCanDrag(this);
+   }
+
+   /**
+    * Return whether the given packet may be dropped on this. To avoid lag, this
+    * should do minimal computation and return quickly.
+    * 
+    * @param packet
+    *           the candidate for dropping on this pile
+    * @return true if this pile will accept the drop
+    */
+   public boolean canDrop(Packet packet)
+   {
+      return strategy.checkCanDrop(this, packet);
+   }
+
+   /**
+    * Perform any necessary post-drag cleanup.
+    * 
+    * @param target
+    * @param mover
+    */
+   void finishDrag(Pile target, CardMover mover)
+   {
+      strategy.finishDrag(this, target, mover);
+   }
+
+   /**
+    * @return the slot this pile uses in the position hash of its Board
+    */
+   int getHashSlot()
+   {
+      return hashSlot;
+   }
+
+   /**
+    * Respond to a click on some number of cards from the top of this pile.
+    * 
+    * @param mover
+    *           the CardMover that is allowed to move cards between Piles for
+    *           this click
+    * @param numCards
+    *           the number of cards selected, or 0 if the pile is empty
+    */
+   void handleClick(CardMover mover, int numCards)
+   {
+      strategy.handleClick(this, numCards, mover);
+   }
+
+   /**
+    * Return the index (counting from the bottom at 0) of the card shown at
+    * the given point, taking the point to be somewhere over this pile.
+    * 
+    * @param px
+    * @param py
+    * @return the index of the card, or -1 if the pile is empty
+    */
+   public int identifyCard(int px, int py)
+   {
+      int dx = px - getX();
+      int dy = py - getY();
+
+      int top = size - 1;
+      int xSelect = (xOFFSET == 0) ? top : Math.min(dx / xOFFSET, top);
+      int ySelect = (yOFFSET == 0) ? top : Math.min(dy / yOFFSET, top);
+
+      return Math.min(xSelect, ySelect);
+   }
+
+   /**
+    * Return a Packet that will be dragged for a potential drop, holding the
+    * cards from the given index to the top. Return null to abort the drag.
+    * 
+    * @param n
+    *           the index (counting from the bottom at 0) of the card picked
+    *           up
+    * @return the packet to be dragged; null to abort
+    */
+   Packet startDrag(int n)
+   {
+      // Get a view of the selected cards to see if they may be dragged
+      List<Card> selected = run(n);
+
+      // Check that the collection is OK to drag
+      if (!strategy.checkStartDrag(this, selected)) {
+         return null;
+      }
+
+      // Create a new collection with the selected cards; remove from this Pile
+      Packet packet = new Packet(this, n, xOFFSET / HOFFSET,
+               yOFFSET / VOFFSET);
+
+      packet.setX(getX() + n * xOFFSET);
+      packet.setY(getY() + n * yOFFSET);
+      return packet;
+   }
+
+   /**
+    * Attach this pile to the given position hash, in the given slot, moving
+    * the keys of its cards out of the hash it was attached to before (if
+    * any) and into the new one.
+    * 
+    * @param hash
+    *           the hash, or null to detach this pile
+    * @param slot
+    */
+   void setPositionHash(PositionHash hash, int slot)
+   {
+      toggleHash(0);
+      positionHash = hash;
+      hashSlot = slot;
+      toggleHash(0);
+   }
+
+   /**
+    * Add the keys of the cards from the given index (counting from the
+    * bottom at 0) to the top to the position hash of this pile, or remove
+    * them if they are already there. This does nothing if the pile is not on
+    * a Board.
+    * 
+    * @param first
+    */
+   void toggleHash(int first)
+   {
+      if (positionHash != null) {
+         for (int i = first; i < size; i++) {
+            positionHash.toggle(hashSlot, i, cards[i]);
+         }
+      }
+   }
+
+   /**
+    * Add or remove the key of the given card at the given index (counting
+    * from the bottom at 0) in this pile, whether or not the card is actually
+    * there. This does nothing if the pile is not on a Board.
+    * 
+    * @param index
+    * @param card
+    */
+   void toggleHash(int index, Card card)
+   {
+      if (positionHash != null) {
+         positionHash.toggle(hashSlot, index, card.getCode());
+      }
+   }
+
+   /**
+    * Programmatically try to drag the given number of cards from the origin to
+    * this Pile. Use the given CardMover to move the cards. The drop is checked
+    * with {@link PileStrategy#checkCanDrop(Pile, Card, int, Pile)}, without
+    * building a Packet.
+    * 
+    * @param origin
+    * @param numCards
+    * @param mover
+    * @return true if successful
+    */
+   public boolean tryDrag(Pile origin, int numCards, CardMover mover)
+   {
+      int n = origin.size();
+      PileStrategy os = origin.strategy;
+
+      if (os.checkCanDrag(origin) && n >= numCards) {
+         // Ask about the cards where they lie, so that nothing is moved
+         // unless the drop is allowed
+         List<Card> cards = origin.run(n - numCards);
+
+         if (os.checkStartDrag(origin, cards)
+            && strategy.checkCanDrop(this, cards.get(0), numCards, origin)) {
+            mover.move(numCards, origin, this);
+            os.finishDrag(origin, this, mover);
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /**
+    * Construct a horizontal Pile for the given strategy.
+    * 
+    * @param strategy
+    * @return a new horizontal Pile
+    */
+   public static Pile makeHorizontal(PileStrategy strategy)
+   {
+      return new Pile(strategy, 1, 0);
+   }
+
+   /**
+    * Construct a squared-up Pile for the given strategy.
+    * 
+    * @param strategy
+    * @return a new squared-up Pile
+    */
+   public static Pile makeSquared(PileStrategy strategy)
+   {
+      return new Pile(strategy, 0, 0);
+   }
+
+   /**
+    * Construct a vertical Pile for the given strategy.
+    * 
+    * @param strategy
+    * @return a new vertical Pile
+    */
+   public static Pile makeVertical(PileStrategy strategy)
+   {
+      return new Pile(strategy, 0, 1);
+   }
+
+   private final PileStrategy strategy;
+
+   // The hash of the Board holding this pile, if any, and this pile's slot
+   private PositionHash positionHash;
+   private int hashSlot;
+}
@@ -8,7 +8,7 @@
 // Online sources:   None
 ////////////////////////////////////////////////////////////////////////////////
 
-package edu.depauw.csc232.solitaire.ui;
+package edu.depauw.csc232.solitaire.core;
 
 import java.util.List;
 
@@ -36,7 +36,9 @@ public interface PileStrategy
    /**
     * Check whether the given Pile will allow a particular Packet to be dropped
     * on it. To avoid lag, this should do minimal computation and return
-    * quickly.
+    * quickly. By default, this asks
+    * {@link #checkCanDrop(Pile, Card, int, Pile)} about the bottom card, size,
+    * and origin of the Packet.
     * 
     * @param pile
     * @param packet
@@ -44,7 +46,38 @@ public interface PileStrategy
     */
    default boolean checkCanDrop(Pile pile, Packet packet)
    {
-      return true;
+      return checkCanDrop(pile, packet.getBottom(), packet.size(),
+               packet.getOrigin());
+   }
+
+   /**
+    * Check whether the given Pile would allow some cards to be dropped on it,
+    * described by the bottom card, the number of cards, and the Pile they
+    * come from. This only answers the question: the cards may still be sitting
+    * on their origin, and nothing is moved. To avoid lag, this should do
+    * minimal computation and return quickly.
+    * <p>
+    * This is the form that {@link Pile#tryDrag(Pile, int, CardMover)} asks,
+    * so a strategy's drop rule belongs here. By default it refuses every drop:
+    * a strategy that only overrides {@link #checkCanDrop(Pile, Packet)}, as
+    * strategies written before this method did, then refuses programmatic
+    * drags instead of silently letting them past its rule. Such a strategy
+    * should move its rule into this method and leave the Packet form to its
+    * default, which asks this one.
+    * 
+    * @param pile
+    * @param bottom
+    *           the bottom card of the cards to be dropped
+    * @param numCards
+    *           the number of cards to be dropped
+    * @param origin
+    *           the Pile holding the cards before the drag
+    * @return true if the Pile will allow the cards to be dropped
+    */
+   default boolean checkCanDrop(Pile pile, Card bottom, int numCards,
+            Pile origin)
+   {
+      return false;
    }
 
    /**
@@ -95,6 +128,12 @@ public interface PileStrategy
    {
       return new PileStrategy()
       {
+         @Override
+         public boolean checkCanDrop(Pile pile, Card bottom, int numCards,
+                  Pile origin)
+         {
+            return true;
+         }
       };
    }
 }
@@ -0,0 +1,86 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             PositionHash.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   https://en.wikipedia.org/wiki/Zobrist_hashing
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.core;
+
+/**
+ * A 64-bit Zobrist hash of the cards on a Board. Every combination of card,
+ * face (up or down), pile slot, and depth in the pile has its own
+ * pseudo-random key, and the hash is the exclusive-or of the keys of all of
+ * the cards on the table. Taking a card off a pile or putting one on changes
+ * the hash by a single exclusive-or with the card's key, so
+ * {@link CardMover} keeps it up to date as it moves cards, at a cost
+ * proportional to the number of cards moved rather than to the size of the
+ * table.
+ * <p>
+ * Each Pile has a slot, normally its own. Piles that the game considers
+ * interchangeable, such as the foundations in Klondike, may share a slot, so
+ * that the hash does not depend on which of them holds which cards. The keys
+ * are computed by mixing the card, face, slot, and depth, rather than stored
+ * in a table, since there is no fixed limit on the number of piles.
+ * 
+ * @author bhoward
+ */
+final class PositionHash
+{
+   /**
+    * @return the current hash of the cards
+    */
+   long get()
+   {
+      return value;
+   }
+
+   /**
+    * Add or remove the key for the given card at the given depth in a pile
+    * with the given slot. Removing a card is the same as adding it again.
+    * 
+    * @param slot
+    * @param index
+    *           the position of the card in the pile, counting from the bottom
+    *           at 0
+    * @param code
+    *           the code of the card (see {@link Card#getCode()})
+    */
+   void toggle(int slot, int index, int code)
+   {
+      value ^= key(slot, index, code);
+   }
+
+   /**
+    * @param slot
+    * @param index
+    * @param code
+    * @return the key for the card with the given code at the given depth in a
+    *         pile with the given slot
+    */
+   static long key(int slot, int index, int code)
+   {
+      long id = code & ~Card.FACE_UP;
+      long packed = ((long) slot << 16) | ((long) index << 8) | (id << 1)
+         | (((code & Card.FACE_UP) != 0) ? 1 : 0);
+      return mix(packed * GOLDEN_GAMMA + SEED);
+   }
+
+   private static long mix(long z)
+   {
+      // finalizer from SplitMix64, which is one-to-one, so no two cards share
+      // a key
+      z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+      z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+      return z ^ (z >>> 31);
+   }
+
+   private long value;
+
+   private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+   private static final long SEED = 0x2545F4914F6CDD1DL;
+}
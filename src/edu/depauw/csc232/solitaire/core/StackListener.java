@@ -0,0 +1,37 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             StackListener.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.core;
+
+/**
+ * A StackListener is told about changes to a {@link CardStack}, so that
+ * whatever displays the stack (such as a cached image of its cards) can be
+ * brought up to date. The core package never draws anything itself.
+ * 
+ * @author bhoward
+ */
+public interface StackListener
+{
+   /**
+    * Called when the cards from the given index (counting from the bottom at
+    * index 0) to the top may have changed, while those below it have not.
+    * 
+    * @param stack
+    * @param index
+    */
+   void cardsChanged(CardStack stack, int index);
+
+   /**
+    * Called when the position of the stack has changed.
+    * 
+    * @param stack
+    */
+   void stackMoved(CardStack stack);
+}
@@ -0,0 +1,36 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             package-info.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * This package contains the state and rules of a card game, with no
+ * dependency on AWT or Swing, so that games may be played and replayed by
+ * programs that have no display.
+ * <ul>
+ * <li>{@link edu.depauw.csc232.solitaire.core.Card Card},
+ * {@link edu.depauw.csc232.solitaire.core.Pile Pile}, and
+ * {@link edu.depauw.csc232.solitaire.core.Packet Packet} hold the cards, and
+ * each Pile has a {@link edu.depauw.csc232.solitaire.core.PileStrategy
+ * PileStrategy} giving the rules for clicking on it and dragging cards to and
+ * from it. All changes to the cards are made with a
+ * {@link edu.depauw.csc232.solitaire.core.CardMover CardMover}, which records
+ * them for undo and redo.</li>
+ * <li>{@link edu.depauw.csc232.solitaire.core.Board Board} holds the piles of
+ * a game, along with its undo/redo history, position hash, and journal. It
+ * takes clicks and drags on the piles in terms of cards rather than mouse
+ * events, and reports which piles changed. After each change it publishes
+ * an immutable {@link edu.depauw.csc232.solitaire.core.BoardSnapshot
+ * BoardSnapshot} of the cards, which other threads may read at any time.</li>
+ * <li>A {@link edu.depauw.csc232.solitaire.core.StackListener StackListener}
+ * is told when the cards or position of a stack change; the
+ * {@link edu.depauw.csc232.solitaire.ui.Table Table} in the ui package uses
+ * one for each pile to keep its image up to date.</li>
+ * </ul>
+ */
+package edu.depauw.csc232.solitaire.core;
@@ -10,12 +10,11 @@
 
 package edu.depauw.csc232.solitaire.klondike;
 
+import edu.depauw.csc232.solitaire.core.Card;
+import edu.depauw.csc232.solitaire.core.CardMover;
+import edu.depauw.csc232.solitaire.core.Pile;
+import edu.depauw.csc232.solitaire.core.PileStrategy;
 import edu.depauw.csc232.solitaire.model.Rank;
-import edu.depauw.csc232.solitaire.ui.Card;
-import edu.depauw.csc232.solitaire.ui.CardMover;
-import edu.depauw.csc232.solitaire.ui.Packet;
-import edu.depauw.csc232.solitaire.ui.Pile;
-import edu.depauw.csc232.solitaire.ui.PileStrategy;
 
 /**
  * This PileStrategy encapsulates the rules for a foundation pile in Klondike.
@@ -40,15 +39,14 @@ class FoundationStrategy implements PileStrategy
    }
 
    @Override
-   public boolean checkCanDrop(Pile foundation, Packet packet)
+   public boolean checkCanDrop(Pile foundation, Card card, int numCards,
+            Pile origin)
    {
       // Only allow single cards
-      if (packet.size() > 1) {
+      if (numCards > 1) {
          return false;
       }
 
-      Card card = packet.getTop();
-
       // Check for ace on empty foundation, or next card of same suit if
       // non-empty
       if (foundation.isEmpty()) {
@@ -65,12 +63,9 @@ class FoundationStrategy implements PileStrategy
    public void handleClick(Pile foundation, int numCards, CardMover mover)
    {
       // Allow cards to be moved back to a tableau
-      if (!foundation.isEmpty()) {
-         for (Pile tableau : game.tableaus) {
-            if (tableau.tryDrag(foundation, numCards, mover)) {
-               return;
-            }
-         }
+      Pile target = game.findTarget(foundation, numCards);
+      if (target != null) {
+         mover.move(numCards, foundation, target);
       }
    }
 
@@ -0,0 +1,82 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             GamePosition.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike;
+
+import edu.depauw.csc232.solitaire.core.Pile;
+import edu.depauw.csc232.solitaire.klondike.solver.KlondikePosition;
+import edu.depauw.csc232.solitaire.klondike.solver.KlondikeState;
+
+/**
+ * A live view of the piles of a KlondikeGame as a {@link KlondikePosition},
+ * so that the {@link edu.depauw.csc232.solitaire.klondike.solver.MoveGenerator
+ * MoveGenerator} can read the game directly. Each card is encoded as it is
+ * read, so the view always shows the current state of the piles.
+ * 
+ * @author bhoward
+ */
+final class GamePosition implements KlondikePosition
+{
+   /**
+    * Construct a view of the piles of the given game.
+    * 
+    * @param game
+    */
+   GamePosition(KlondikeGame game)
+   {
+      this.piles = new Pile[KlondikeState.PILES];
+      piles[KlondikeState.STOCK] = game.stock;
+      piles[KlondikeState.WASTE] = game.waste;
+      for (int i = 0; i < KlondikeState.TABLEAUS; i++) {
+         piles[KlondikeState.TABLEAU + i] = game.tableaus[i];
+      }
+      for (int i = 0; i < KlondikeState.FOUNDATIONS; i++) {
+         piles[KlondikeState.FOUNDATION + i] = game.foundations[i];
+      }
+   }
+
+   @Override
+   public int card(int pile, int index)
+   {
+      Pile p = piles[pile];
+      return KlondikeState.encode(p.getFromTop(p.size() - index));
+   }
+
+   /**
+    * @param index
+    * @return the pile with the given index
+    */
+   Pile getPile(int index)
+   {
+      return piles[index];
+   }
+
+   /**
+    * @param pile
+    * @return the index of the given pile, or -1 if it is not in the game
+    */
+   int indexOf(Pile pile)
+   {
+      for (int i = 0; i < piles.length; i++) {
+         if (piles[i] == pile) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   @Override
+   public int size(int pile)
+   {
+      return piles[pile].size();
+   }
+
+   private final Pile[] piles;
+}
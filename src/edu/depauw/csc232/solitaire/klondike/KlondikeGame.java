@@ -10,16 +10,27 @@
 
 package edu.depauw.csc232.solitaire.klondike;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Consumer;
+
 import edu.depauw.csc232.solitaire.Game;
-import edu.depauw.csc232.solitaire.ui.CardMover;
-import edu.depauw.csc232.solitaire.ui.CardStack;
-import edu.depauw.csc232.solitaire.ui.GameFrame;
-import edu.depauw.csc232.solitaire.ui.Pile;
-import edu.depauw.csc232.solitaire.ui.PileStrategy;
-import edu.depauw.csc232.solitaire.ui.Table;
+import edu.depauw.csc232.solitaire.core.Board;
+import edu.depauw.csc232.solitaire.core.CardMover;
+import edu.depauw.csc232.solitaire.core.CardStack;
+import edu.depauw.csc232.solitaire.core.Pile;
+import edu.depauw.csc232.solitaire.core.PileStrategy;
+import edu.depauw.csc232.solitaire.klondike.solver.KlondikeMove;
+import edu.depauw.csc232.solitaire.klondike.solver.KlondikePosition;
+import edu.depauw.csc232.solitaire.klondike.solver.KlondikeState;
+import edu.depauw.csc232.solitaire.klondike.solver.MoveGenerator;
+import edu.depauw.csc232.solitaire.model.Shuffle;
 
 /**
  * An implementation of the single-card-draw version of Klondike solitaire.
+ * The game uses no AWT or Swing classes; it is shown and played in a window
+ * by {@link edu.depauw.csc232.solitaire.ui.klondike.KlondikeWindow
+ * KlondikeWindow}.
  * 
  * @author bhoward
  */
@@ -27,10 +38,25 @@ public class KlondikeGame implements Game
 {
    /**
     * Construct the empty piles to be placed on the game table, and assign their
-    * interaction strategies.
+    * interaction strategies. The cards will be dealt in the order of a deal
+    * number chosen at random.
     */
    public KlondikeGame()
    {
+      this(Shuffle.randomDealNumber());
+   }
+
+   /**
+    * Construct the empty piles to be placed on the game table, and assign their
+    * interaction strategies. The cards will be dealt in the order given by the
+    * deal number, so that the same number always produces the same game.
+    * 
+    * @param dealNumber
+    */
+   public KlondikeGame(long dealNumber)
+   {
+      this.dealNumber = dealNumber;
+
       PileStrategy wasteStrategy = new WasteStrategy(this);
       waste = Pile.makeSquared(wasteStrategy);
 
@@ -48,10 +74,15 @@ public class KlondikeGame implements Game
       for (int i = 0; i < NUMBER_OF_FOUNDATIONS; i++) {
          foundations[i] = Pile.makeSquared(foundationStrategy);
       }
+
+      position = new GamePosition(this);
+      moves = new int[MoveGenerator.MAX_MOVES];
    }
 
    /**
-    * Check for the winning condition: all foundations piles are full.
+    * Check for the winning condition: all foundations piles are full. The win
+    * is only announced if a listener has been set with
+    * {@link #setWinListener(Runnable)}.
     */
    public void checkWin()
    {
@@ -62,7 +93,9 @@ public class KlondikeGame implements Game
       }
 
       // All foundations have 13 cards -- we win!
-      frame.showWin();
+      if (winListener != null) {
+         winListener.run();
+      }
    }
 
    /**
@@ -74,7 +107,7 @@ public class KlondikeGame implements Game
    public void dealGame(CardMover mover)
    {
       mover.addDeck(stock);
-      mover.shuffle(stock);
+      mover.shuffle(stock, dealNumber);
 
       for (int i = 0; i < NUMBER_OF_TABLEAUS; i++) {
          mover.move(i + 1, stock, tableaus[i]);
@@ -85,55 +118,154 @@ public class KlondikeGame implements Game
    }
 
    /**
-    * Place the UI elements on the given Table.
+    * Find where a click on the origin pile should send its top numCards
+    * cards: the target of the first legal move of exactly that many cards
+    * from the origin, in the order listed by {@link MoveGenerator}, so that
+    * foundations are tried before tableaus. The piles are only examined, not
+    * changed.
+    * 
+    * @param origin
+    * @param numCards
+    * @return the target pile, or null if the cards have nowhere to go
+    */
+   Pile findTarget(Pile origin, int numCards)
+   {
+      int from = position.indexOf(origin);
+      int n = MoveGenerator.generate(position, from, moves);
+      for (int i = 0; i < n; i++) {
+         int move = moves[i];
+         if (KlondikeMove.kind(move) == KlondikeMove.PLAY
+            && KlondikeMove.count(move) == numCards) {
+            return position.getPile(KlondikeMove.to(move));
+         }
+      }
+      return null;
+   }
+
+   /**
+    * @return the number of the deal being played
+    */
+   public long getDealNumber()
+   {
+      return dealNumber;
+   }
+
+   /**
+    * @return the file the game keeps its journal in, or null if none
+    */
+   public File getJournal()
+   {
+      return journal;
+   }
+
+   /**
+    * Return the pile with the given index in {@link #getPosition()}, which
+    * numbers the piles as {@link KlondikeState} does.
     * 
-    * @param table
+    * @param index
+    * @return the pile
     */
-   private void layoutUI(Table table)
+   public Pile getPile(int index)
+   {
+      return position.getPile(index);
+   }
+
+   /**
+    * @return a live view of the piles of this game
+    */
+   public KlondikePosition getPosition()
+   {
+      return position;
+   }
+
+   /**
+    * Give the piles their places on the table, and add them with the given
+    * function to the Board, or to a display of it. Called after the deal, so
+    * the stock and tableaus already have their ids in the history (and so in
+    * a journal), in deal order; the waste and foundations get theirs here, in
+    * the order they are added.
+    * 
+    * @param add
+    * @param board
+    *           the board the piles are added to
+    */
+   public void layout(Consumer<Pile> add, Board board)
    {
       waste.setX(110);
       waste.setY(10);
-      table.addPile(waste);
 
       stock.setX(10);
       stock.setY(10);
-      table.addPile(stock);
 
       for (int i = 0; i < NUMBER_OF_TABLEAUS; i++) {
          tableaus[i].setX(10 + 100 * i);
          tableaus[i].setY(160);
-         table.addPile(tableaus[i]);
       }
 
       for (int i = 0; i < NUMBER_OF_FOUNDATIONS; i++) {
          foundations[i].setX(310 + 100 * i);
          foundations[i].setY(10);
-         table.addPile(foundations[i]);
       }
+
+      add.accept(waste);
+      add.accept(stock);
+      for (Pile tableau : tableaus) {
+         add.accept(tableau);
+      }
+      for (Pile foundation : foundations) {
+         add.accept(foundation);
+      }
+      shareFoundationSlot(board);
    }
 
    /**
-    * Create and display a GameFrame initialized to play a game of Klondike.
+    * Create a game that continues the one recorded in the given journal file,
+    * dealt from the deal number saved there. The journal is replayed, and
+    * kept up to date, once the game is shown.
+    * 
+    * @param journal
+    * @return the game
+    * @throws IOException
+    *            if the file cannot be read or is not a journal
     */
-   public void start()
+   public static KlondikeGame resume(File journal) throws IOException
    {
-      frame = new GameFrame("Klondike", 700, 600, table -> {
-         table.dealGame(this);
-         layoutUI(table);
-      });
+      KlondikeGame game = new KlondikeGame(Board.readJournalSeed(journal));
+      game.setJournal(journal);
+      return game;
+   }
 
-      frame.display();
+   /**
+    * Keep a journal of the game in the given file once it is shown, so that
+    * it can be continued later with {@link #resume(File)}.
+    * 
+    * @param journal
+    *           the file, or null for none
+    */
+   public void setJournal(File journal)
+   {
+      this.journal = journal;
    }
 
    /**
-    * Main method for testing the Klondike game by itself.
+    * Announce a win to the given listener, such as the window showing the
+    * game.
     * 
-    * @param args
+    * @param listener
+    *           the listener, or null for none
     */
-   public static void main(String[] args)
+   public void setWinListener(Runnable listener)
+   {
+      this.winListener = listener;
+   }
+
+   // Let the foundations share a slot in the position hash, since which
+   // foundation holds which suit makes no difference to the game
+   private void shareFoundationSlot(Board board)
    {
-      Game game = new KlondikeGame();
-      game.start();
+      for (Pile foundation : foundations) {
+         board.shareHashSlot(foundation, foundations[0]);
+      }
    }
 
    // No point in encapsulating these with getters...
@@ -145,7 +277,19 @@ public class KlondikeGame implements Game
 
    public final Pile[] foundations;
 
-   private GameFrame frame;
+   // Told when the game is won, or null if no one is listening
+   private Runnable winListener;
+
+   // The piles seen as a position for the move generator
+   private final GamePosition position;
+
+   // Scratch space for the moves found by findTarget
+   private final int[] moves;
+
+   private final long dealNumber;
+
+   // Where to keep the journal of the game, or null if none
+   private File journal;
 
    private static final int NUMBER_OF_FOUNDATIONS = 4;
 
@@ -10,10 +10,10 @@
 
 package edu.depauw.csc232.solitaire.klondike;
 
-import edu.depauw.csc232.solitaire.ui.CardMover;
-import edu.depauw.csc232.solitaire.ui.Packet;
-import edu.depauw.csc232.solitaire.ui.Pile;
-import edu.depauw.csc232.solitaire.ui.PileStrategy;
+import edu.depauw.csc232.solitaire.core.Card;
+import edu.depauw.csc232.solitaire.core.CardMover;
+import edu.depauw.csc232.solitaire.core.Pile;
+import edu.depauw.csc232.solitaire.core.PileStrategy;
 
 /**
  * This PileStrategy encapsulates the rules for the stock pile in Klondike. The
@@ -38,9 +38,10 @@ class StockStrategy implements PileStrategy
    }
 
    @Override
-   public boolean checkCanDrop(Pile stock, Packet packet)
+   public boolean checkCanDrop(Pile stock, Card bottom, int numCards,
+            Pile origin)
    {
-      // Not allowed to drop a packet on the stock
+      // Not allowed to drop cards on the stock
       return false;
    }
 
@@ -12,12 +12,11 @@ package edu.depauw.csc232.solitaire.klondike;
 
 import java.util.List;
 
+import edu.depauw.csc232.solitaire.core.Card;
+import edu.depauw.csc232.solitaire.core.CardMover;
+import edu.depauw.csc232.solitaire.core.Pile;
+import edu.depauw.csc232.solitaire.core.PileStrategy;
 import edu.depauw.csc232.solitaire.model.Rank;
-import edu.depauw.csc232.solitaire.ui.Card;
-import edu.depauw.csc232.solitaire.ui.CardMover;
-import edu.depauw.csc232.solitaire.ui.Packet;
-import edu.depauw.csc232.solitaire.ui.Pile;
-import edu.depauw.csc232.solitaire.ui.PileStrategy;
 
 /**
  * This PileStrategy encapsulates the rules for a tableau pile in Klondike. Any
@@ -41,17 +40,16 @@ class TableauStrategy implements PileStrategy
    }
 
    @Override
-   public boolean checkCanDrop(Pile tableau, Packet packet)
+   public boolean checkCanDrop(Pile tableau, Card bottom, int numCards,
+            Pile origin)
    {
-      // Bottom card of packet must have opposite color and one-less value of
-      // top card in tableau, or bottom card is a King and the tableau is empty
+      // Bottom card must have opposite color and one-less value of top card
+      // in tableau, or bottom card is a King and the tableau is empty
       if (tableau.isEmpty()) {
-         Card bottom = packet.getBottom();
          return bottom.getRank() == Rank.King;
       }
       else {
          Card top = tableau.getTop();
-         Card bottom = packet.getBottom();
          return top.isFaceUp() && (top.isRed() != bottom.isRed())
             && (top.getValue() - 1 == bottom.getValue());
       }
@@ -87,23 +85,12 @@ class TableauStrategy implements PileStrategy
    @Override
    public void handleClick(Pile tableau, int numCards, CardMover mover)
    {
-      // Search for a place to move the card; check foundations if only one
-      // card, then other tableaus
-      if (!tableau.isEmpty()) {
-         if (numCards == 1) {
-            for (Pile foundation : game.foundations) {
-               if (foundation.tryDrag(tableau, 1, mover)) {
-                  return;
-               }
-            }
-         }
-
-         for (Pile tableau2 : game.tableaus) {
-            if (tableau2 != tableau
-               && tableau2.tryDrag(tableau, numCards, mover)) {
-               return;
-            }
-         }
+      // Move the cards to the first place that will take them: a foundation
+      // if only one card, otherwise another tableau
+      Pile target = game.findTarget(tableau, numCards);
+      if (target != null) {
+         mover.move(numCards, tableau, target);
+         finishDrag(tableau, target, mover);
       }
    }
 
@@ -12,11 +12,10 @@ package edu.depauw.csc232.solitaire.klondike;
 
 import java.util.List;
 
-import edu.depauw.csc232.solitaire.ui.Card;
-import edu.depauw.csc232.solitaire.ui.CardMover;
-import edu.depauw.csc232.solitaire.ui.Packet;
-import edu.depauw.csc232.solitaire.ui.Pile;
-import edu.depauw.csc232.solitaire.ui.PileStrategy;
+import edu.depauw.csc232.solitaire.core.Card;
+import edu.depauw.csc232.solitaire.core.CardMover;
+import edu.depauw.csc232.solitaire.core.Pile;
+import edu.depauw.csc232.solitaire.core.PileStrategy;
 
 /**
  * This PileStrategy encapsulates the rules for the waste pile in Klondike. The
@@ -40,7 +39,8 @@ class WasteStrategy implements PileStrategy
    }
 
    @Override
-   public boolean checkCanDrop(Pile waste, Packet packet)
+   public boolean checkCanDrop(Pile waste, Card bottom, int numCards,
+            Pile origin)
    {
       // Drops are not allowed
       return false;
@@ -63,19 +63,12 @@ class WasteStrategy implements PileStrategy
    @Override
    public void handleClick(Pile waste, int numCards, CardMover mover)
    {
-      // Search for a place to move the card; check foundations, then tableaus
-      if (!waste.isEmpty()) {
-         for (Pile foundation : game.foundations) {
-            if (foundation.tryDrag(waste, 1, mover)) {
-               return;
-            }
-         }
-
-         for (Pile tableau : game.tableaus) {
-            if (tableau.tryDrag(waste, 1, mover)) {
-               return;
-            }
-         }
+      // Move the card to the first place that will take it: a foundation,
+      // otherwise a tableau
+      Pile target = game.findTarget(waste, numCards);
+      if (target != null) {
+         mover.move(numCards, waste, target);
+         finishDrag(waste, target, mover);
       }
    }
 
@@ -0,0 +1,150 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             JournalCorpus.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.corpus;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import edu.depauw.csc232.solitaire.core.Board;
+import edu.depauw.csc232.solitaire.core.Pile;
+import edu.depauw.csc232.solitaire.klondike.KlondikeGame;
+import edu.depauw.csc232.solitaire.klondike.solver.CorpusWriter;
+import edu.depauw.csc232.solitaire.klondike.solver.GameRecord;
+import edu.depauw.csc232.solitaire.klondike.solver.KlondikeMove;
+import edu.depauw.csc232.solitaire.klondike.solver.KlondikePosition;
+import edu.depauw.csc232.solitaire.klondike.solver.KlondikeState;
+import edu.depauw.csc232.solitaire.klondike.solver.Solution;
+
+/**
+ * Turn the journals of Klondike games played by hand into records for a
+ * corpus of games. A journal is replayed on a Board with no display, through
+ * the public layout and position of a {@link KlondikeGame}, so neither the
+ * game nor the solver needs to know about the other's files.
+ * 
+ * @author bhoward
+ */
+public class JournalCorpus
+{
+   private JournalCorpus()
+   {
+   }
+
+   /**
+    * Add the games recorded in journal files to a new corpus file, as read by
+    * {@link #readJournal(File)}.
+    * 
+    * @param corpus
+    * @param journals
+    * @throws IOException
+    *            if a journal cannot be read or the corpus cannot be written
+    */
+   public static void exportJournals(File corpus, File... journals)
+            throws IOException
+   {
+      try (CorpusWriter writer = CorpusWriter.open(corpus)) {
+         for (File journal : journals) {
+            writer.add(readJournal(journal));
+         }
+      }
+   }
+
+   /**
+    * Read the game recorded in a journal file: its deal number, the moves of
+    * the line of play the journal ends on (leaving out any that were undone),
+    * and whether it was won (SOLVED) or left unfinished (ABORTED). Each move
+    * is read off from the change in the sizes of the piles. A journal holds
+    * no times, so the time is 0.
+    * 
+    * @param journal
+    * @return the recorded game
+    * @throws IOException
+    *            if the file cannot be read or is not a journal
+    */
+   public static GameRecord readJournal(File journal) throws IOException
+   {
+      KlondikeGame game = new KlondikeGame(Board.readJournalSeed(journal));
+      Board board = new Board();
+      board.dealGame(game);
+      game.layout(board::addPile, board);
+      KlondikePosition position = game.getPosition();
+      Set<Pile> changed = new HashSet<>();
+      board.openJournal(journal, game.getDealNumber(), changed);
+      board.closeJournal();
+
+      int end = board.getHistoryPosition();
+      board.seek(0, changed);
+      int[] moves = new int[end];
+      int n = 0;
+      int[] before = new int[KlondikeState.PILES];
+      for (int i = 0; i < end; i++) {
+         for (int p = 0; p < KlondikeState.PILES; p++) {
+            before[p] = position.size(p);
+         }
+         board.seek(i + 1, changed);
+
+         int from = -1;
+         int to = -1;
+         for (int p = 0; p < KlondikeState.PILES; p++) {
+            int change = position.size(p) - before[p];
+            if (change < 0) {
+               from = p;
+            }
+            else if (change > 0) {
+               to = p;
+            }
+         }
+
+         if (from < 0) {
+            // Only turned cards over, which is part of the move before
+            continue;
+         }
+
+         int count = before[from] - position.size(from);
+         if (from == KlondikeState.STOCK) {
+            moves[n++] = KlondikeMove.draw();
+         }
+         else if (to == KlondikeState.STOCK) {
+            moves[n++] = KlondikeMove.recycle(count);
+         }
+         else {
+            moves[n++] = KlondikeMove.play(from, to, count);
+         }
+      }
+
+      boolean won = true;
+      for (Pile foundation : game.foundations) {
+         won &= foundation.size() == 13;
+      }
+      return new GameRecord(game.getDealNumber(),
+               won ? Solution.Status.SOLVED : Solution.Status.ABORTED,
+               Arrays.copyOf(moves, n), 0);
+   }
+
+   /**
+    * Export journals from the command line. The first argument is the corpus
+    * file to write, and the rest are the journal files to read.
+    * 
+    * @param args
+    * @throws IOException
+    *            if a journal cannot be read or the corpus cannot be written
+    */
+   public static void main(String[] args) throws IOException
+   {
+      File[] journals = new File[args.length - 1];
+      for (int i = 0; i < journals.length; i++) {
+         journals[i] = new File(args[i + 1]);
+      }
+      exportJournals(new File(args[0]), journals);
+   }
+}
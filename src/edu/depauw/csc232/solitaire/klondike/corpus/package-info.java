@@ -0,0 +1,25 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             package-info.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * This package connects games of Klondike played by hand to the corpus of
+ * games kept by the solver. It sits above both
+ * {@link edu.depauw.csc232.solitaire.klondike} and
+ * {@link edu.depauw.csc232.solitaire.klondike.solver}, so that the game
+ * depends on the solver only for its move generator, and the solver does not
+ * depend on the game at all.
+ * <ul>
+ * <li>{@link edu.depauw.csc232.solitaire.klondike.corpus.JournalCorpus
+ * JournalCorpus} replays the journal of a game on a Board with no display,
+ * reads the moves played off the piles, and writes the games of any number
+ * of journals to a corpus file.</li>
+ * </ul>
+ */
+package edu.depauw.csc232.solitaire.klondike.corpus;
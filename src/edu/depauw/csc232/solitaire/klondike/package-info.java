@@ -15,8 +15,9 @@
  * <li>{@link edu.depauw.csc232.solitaire.klondike.KlondikeGame KlondikeGame} is
  * an implementation of the {@link edu.depauw.csc232.solitaire.Game Game}
  * interface, which is the primary external interface for creating a new game of
- * Klondike. It collects the various {@link edu.depauw.csc232.solitaire.ui.Pile
- * Piles} that make up the user interface of a game of Klondike. The
+ * Klondike. It collects the various
+ * {@link edu.depauw.csc232.solitaire.core.Pile Piles} that make up the user
+ * interface of a game of Klondike. The
  * <b>Stock</b> is the draw pile; cards are drawn one at a time and put onto the
  * <b>Waste</b> pile; when the stock is empty, the waste is turned over and used
  * to replenish the stock. There are seven <b>Tableau</b> piles that initially
@@ -36,7 +37,12 @@
  * {@link edu.depauw.csc232.solitaire.klondike.TableauStrategy TableauStrategy},
  * and {@link edu.depauw.csc232.solitaire.klondike.FoundationStrategy
  * FoundationStrategy} are classes that encode the above rules for clicking,
- * dragging, and dropping from and to the various types of piles.</li>
+ * dragging, and dropping from and to the various types of piles. A click
+ * sends cards to the first target found by the
+ * {@link edu.depauw.csc232.solitaire.klondike.solver.MoveGenerator
+ * MoveGenerator}, which reads the piles through a
+ * {@link edu.depauw.csc232.solitaire.klondike.GamePosition GamePosition}
+ * without moving any cards.</li>
  * </ul>
  */
 package edu.depauw.csc232.solitaire.klondike;
@@ -0,0 +1,318 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             CorpusReader.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read back the games in a corpus written by {@link CorpusWriter}, one block
+ * at a time, so that a corpus of any size can be read in a small amount of
+ * memory. Only games with one of the wanted outcomes are returned. The
+ * outcome column of each block is decompressed first; if none of the block's
+ * games are wanted, the rest of the block is skipped without decompressing
+ * it. Otherwise only the move columns of the wanted outcomes are
+ * decompressed, so that counting or selecting games by outcome never touches
+ * the moves of the other games.
+ * 
+ * @author bhoward
+ */
+public class CorpusReader implements Closeable
+{
+   /**
+    * Construct a reader for the corpus in the given stream, which returns
+    * the games with any of the given outcomes.
+    * 
+    * @param in
+    * @param wanted
+    *           the outcomes of the games to return
+    * @throws IOException
+    *            if the stream cannot be read or does not hold a corpus
+    */
+   public CorpusReader(InputStream in, Set<Solution.Status> wanted)
+            throws IOException
+   {
+      this.in = new DataInputStream(in);
+      this.wanted = EnumSet.copyOf(wanted);
+      this.inflater = new Inflater();
+      this.compressed = new byte[1 << 16];
+      this.moves = new ByteBuffer[STATUSES.length];
+      this.moveStart = new int[STATUSES.length];
+      if (this.in.readInt() != CorpusWriter.MAGIC) {
+         throw new IOException("Not a game corpus");
+      }
+   }
+
+   /**
+    * Open a corpus file, to read the games with any of the given outcomes.
+    * 
+    * @param file
+    * @param wanted
+    * @return the reader
+    * @throws IOException
+    */
+   public static CorpusReader open(File file, Set<Solution.Status> wanted)
+            throws IOException
+   {
+      return new CorpusReader(
+               new BufferedInputStream(new FileInputStream(file)), wanted);
+   }
+
+   @Override
+   public void close() throws IOException
+   {
+      in.close();
+      inflater.end();
+   }
+
+   /**
+    * @return the number of blocks read so far
+    */
+   public long getBlocks()
+   {
+      return blocks;
+   }
+
+   /**
+    * @return the number of blocks read so far that had to be decompressed,
+    *         since some of their games were wanted
+    */
+   public long getDecodedBlocks()
+   {
+      return decodedBlocks;
+   }
+
+   /**
+    * @return the number of move columns, one per outcome in each block, that
+    *         had to be decompressed so far, since their games were wanted
+    */
+   public long getDecodedMoveColumns()
+   {
+      return decodedMoveColumns;
+   }
+
+   /**
+    * Return the next game with a wanted outcome.
+    * 
+    * @return the game, or null if there are no more
+    * @throws IOException
+    *            if the stream cannot be read or the corpus is damaged
+    */
+   public GameRecord next() throws IOException
+   {
+      while (true) {
+         while (index < games) {
+            int i = index++;
+            int s = outcomes.get(i);
+            int start = moveStart[s];
+            moveStart[s] += counts[i];
+            Solution.Status status = STATUSES[s];
+            if (wanted.contains(status)) {
+               int[] gameMoves = new int[counts[i]];
+               for (int j = 0; j < gameMoves.length; j++) {
+                  gameMoves[j] = moves[s].getShort((start + j) * Short.BYTES)
+                     & 0xFFFF;
+               }
+               return new GameRecord(deals[i], status, gameMoves, nanos[i]);
+            }
+         }
+
+         if (ended || !readBlock()) {
+            ended = true;
+            return null;
+         }
+      }
+   }
+
+   // Read the next block that holds a wanted game; return false at the end
+   // of the corpus
+   private boolean readBlock() throws IOException
+   {
+      while (true) {
+         int n = in.readInt();
+         if (n == 0) {
+            return false;
+         }
+         blocks++;
+
+         outcomes = readColumn(true);
+         boolean any = false;
+         for (int i = 0; i < n && !any; i++) {
+            any = wanted.contains(STATUSES[outcomes.get(i)]);
+         }
+         if (!any) {
+            for (int c = 1; c < COLUMNS; c++) {
+               readColumn(false);
+            }
+            continue;
+         }
+
+         decodedBlocks++;
+         ByteBuffer column = readColumn(true);
+         deals = new long[n];
+         long previous = 0;
+         for (int i = 0; i < n; i++) {
+            previous += column.getLong();
+            deals[i] = previous;
+         }
+
+         column = readColumn(true);
+         counts = new int[n];
+         for (int i = 0; i < n; i++) {
+            counts[i] = column.getInt();
+         }
+
+         column = readColumn(true);
+         nanos = new long[n];
+         for (int i = 0; i < n; i++) {
+            nanos[i] = column.getLong();
+         }
+
+         for (int s = 0; s < STATUSES.length; s++) {
+            boolean decode = wanted.contains(STATUSES[s]);
+            moves[s] = readColumn(decode);
+            if (decode) {
+               decodedMoveColumns++;
+            }
+         }
+         games = n;
+         index = 0;
+         Arrays.fill(moveStart, 0);
+         return true;
+      }
+   }
+
+   // Read one column, and decompress it if asked to; otherwise skip over it
+   // and return null
+   private ByteBuffer readColumn(boolean decode) throws IOException
+   {
+      int length = in.readInt();
+      int size = in.readInt();
+      if (!decode) {
+         while (size > 0) {
+            int skipped = in.skipBytes(size);
+            if (skipped == 0) {
+               // Read a byte instead, which fails at the end of the stream
+               in.readByte();
+               skipped = 1;
+            }
+            size -= skipped;
+         }
+         return null;
+      }
+
+      if (size > compressed.length) {
+         compressed = Arrays.copyOf(compressed, size);
+      }
+      in.readFully(compressed, 0, size);
+      byte[] raw = new byte[length];
+      inflater.reset();
+      inflater.setInput(compressed, 0, size);
+      try {
+         if (inflater.inflate(raw) != length || !inflater.finished()) {
+            throw new IOException("Damaged column in game corpus");
+         }
+      }
+      catch (DataFormatException e) {
+         throw new IOException("Damaged column in game corpus", e);
+      }
+      return ByteBuffer.wrap(raw);
+   }
+
+   /**
+    * Count the games in a corpus file by outcome, from the command line. The
+    * first argument is the file; any further arguments are the outcomes to
+    * count (default all), and the average number of moves of those games is
+    * printed too.
+    * 
+    * @param args
+    * @throws IOException
+    */
+   public static void main(String[] args) throws IOException
+   {
+      Set<Solution.Status> wanted = EnumSet.allOf(Solution.Status.class);
+      if (args.length > 1) {
+         wanted.clear();
+         for (int i = 1; i < args.length; i++) {
+            wanted.add(Solution.Status.valueOf(args[i].toUpperCase()));
+         }
+      }
+
+      long[] games = new long[STATUSES.length];
+      long moveTotal = 0;
+      long start = System.nanoTime();
+      try (CorpusReader reader = open(new File(args[0]), wanted)) {
+         GameRecord game;
+         while ((game = reader.next()) != null) {
+            games[game.getStatus().ordinal()]++;
+            moveTotal += game.getMoveCount();
+         }
+         double seconds = (System.nanoTime() - start) / 1e9;
+
+         long count = 0;
+         for (Solution.Status status : wanted) {
+            System.out.println(status + ": " + games[status.ordinal()]);
+            count += games[status.ordinal()];
+         }
+         System.out.printf("%d games, %.1f moves per game, %d of %d blocks "
+            + "and %d of %d move columns decoded, %.2f s%n", count,
+                  (count == 0) ? 0.0 : (double) moveTotal / count,
+                  reader.getDecodedBlocks(), reader.getBlocks(),
+                  reader.getDecodedMoveColumns(),
+                  reader.getBlocks() * STATUSES.length, seconds);
+      }
+   }
+
+   private final DataInputStream in;
+
+   private final Set<Solution.Status> wanted;
+
+   private final Inflater inflater;
+
+   // Scratch space for a compressed column
+   private byte[] compressed;
+
+   // The columns of the current block (with a null move column for each
+   // outcome not wanted), the next game to look at, and the offset of the
+   // first move of the next game with each outcome in its move column
+   private ByteBuffer outcomes;
+   private long[] deals;
+   private int[] counts;
+   private long[] nanos;
+   private final ByteBuffer[] moves;
+   private int games;
+   private int index;
+   private final int[] moveStart;
+
+   private boolean ended;
+
+   private long blocks;
+   private long decodedBlocks;
+   private long decodedMoveColumns;
+
+   // Outcomes, deal numbers, move counts, times, and the moves of each
+   // outcome
+   private static final int COLUMNS = 4 + CorpusWriter.STATUSES;
+
+   private static final Solution.Status[] STATUSES = Solution.Status
+            .values();
+}
@@ -0,0 +1,239 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             CorpusWriter.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   https://en.wikipedia.org/wiki/Column-oriented_DBMS
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Write a corpus of recorded games to a single file, for analysis of play on a
+ * large scale. Games are gathered into blocks of up to {@link #BLOCK_GAMES},
+ * and each block is written a column at a time: the outcomes of its games,
+ * their deal numbers (each as the difference from the one before), their
+ * move counts, their times, and finally their moves, two bytes each, in one
+ * column for each outcome (in the order of {@link Solution.Status}), holding
+ * the moves of just the games with that outcome. Each column is compressed
+ * on its own with a Deflater, since like values side by side compress far
+ * better than whole games would. A {@link CorpusReader} can then read the
+ * outcomes of a block without decompressing anything else, skip the block if
+ * none of its games are wanted, and otherwise decompress the moves of only
+ * the wanted outcomes.
+ * <p>
+ * The file starts with a magic number. Each block starts with its number of
+ * games, and each column with its length before and after compression; a
+ * block of no games ends the file. Games may be added from several threads
+ * at once, and are written in the order they are added.
+ * 
+ * @author bhoward
+ */
+public class CorpusWriter implements Closeable
+{
+   /**
+    * Construct a writer that writes a new corpus to the given stream.
+    * 
+    * @param out
+    * @throws IOException
+    */
+   public CorpusWriter(OutputStream out) throws IOException
+   {
+      this.out = new DataOutputStream(out);
+      this.deflater = new Deflater(Deflater.BEST_COMPRESSION);
+      this.outcomes = new byte[BLOCK_GAMES];
+      this.deals = new long[BLOCK_GAMES];
+      this.counts = new int[BLOCK_GAMES];
+      this.nanos = new long[BLOCK_GAMES];
+      this.moves = new short[STATUSES][BLOCK_GAMES * 16];
+      this.moveCounts = new int[STATUSES];
+      this.compressed = new byte[1 << 16];
+      this.out.writeInt(MAGIC);
+   }
+
+   /**
+    * Open a new corpus file, replacing any file of the same name.
+    * 
+    * @param file
+    * @return the writer
+    * @throws IOException
+    */
+   public static CorpusWriter open(File file) throws IOException
+   {
+      return new CorpusWriter(
+               new BufferedOutputStream(new FileOutputStream(file)));
+   }
+
+   /**
+    * Add a game to the corpus.
+    * 
+    * @param game
+    * @throws IOException
+    */
+   public void add(GameRecord game) throws IOException
+   {
+      add(game.getDeal(), game.getStatus(), game.getMoves(), game.getNanos());
+   }
+
+   /**
+    * Add a game to the corpus.
+    * 
+    * @param deal
+    *           the deal number
+    * @param status
+    *           how the game ended
+    * @param gameMoves
+    *           the moves played, encoded by {@link KlondikeMove}
+    * @param time
+    *           the time taken, in nanoseconds, or 0 if it is not known
+    * @throws IOException
+    */
+   public synchronized void add(long deal, Solution.Status status,
+            int[] gameMoves, long time) throws IOException
+   {
+      int s = status.ordinal();
+      if (moveCounts[s] + gameMoves.length > moves[s].length) {
+         moves[s] = Arrays.copyOf(moves[s], Math.max(
+                  moveCounts[s] + gameMoves.length, moves[s].length * 2));
+      }
+      for (int move : gameMoves) {
+         moves[s][moveCounts[s]++] = (short) KlondikeMove.withoutReveal(move);
+      }
+
+      outcomes[games] = (byte) s;
+      deals[games] = deal;
+      counts[games] = gameMoves.length;
+      nanos[games] = time;
+      games++;
+      total++;
+
+      if (games == BLOCK_GAMES) {
+         writeBlock();
+      }
+   }
+
+   /**
+    * Write the last block and the end of the corpus, and close the stream.
+    * 
+    * @throws IOException
+    */
+   @Override
+   public synchronized void close() throws IOException
+   {
+      if (games > 0) {
+         writeBlock();
+      }
+      out.writeInt(0);
+      out.close();
+      deflater.end();
+   }
+
+   /**
+    * @return the number of games added so far
+    */
+   public synchronized long size()
+   {
+      return total;
+   }
+
+   // Compress one column and write it, preceded by its two lengths
+   private void writeColumn(ByteBuffer raw) throws IOException
+   {
+      int length = raw.position();
+      deflater.reset();
+      deflater.setInput(raw.array(), 0, length);
+      deflater.finish();
+      int size = 0;
+      while (!deflater.finished()) {
+         if (size == compressed.length) {
+            compressed = Arrays.copyOf(compressed, size * 2);
+         }
+         size += deflater.deflate(compressed, size, compressed.length - size);
+      }
+
+      out.writeInt(length);
+      out.writeInt(size);
+      out.write(compressed, 0, size);
+   }
+
+   // Write the games gathered so far as one block, and start a new one
+   private void writeBlock() throws IOException
+   {
+      out.writeInt(games);
+
+      writeColumn(ByteBuffer.allocate(games).put(outcomes, 0, games));
+
+      ByteBuffer column = ByteBuffer.allocate(games * Long.BYTES);
+      long previous = 0;
+      for (int i = 0; i < games; i++) {
+         column.putLong(deals[i] - previous);
+         previous = deals[i];
+      }
+      writeColumn(column);
+
+      column = ByteBuffer.allocate(games * Integer.BYTES);
+      for (int i = 0; i < games; i++) {
+         column.putInt(counts[i]);
+      }
+      writeColumn(column);
+
+      column = ByteBuffer.allocate(games * Long.BYTES);
+      for (int i = 0; i < games; i++) {
+         column.putLong(nanos[i]);
+      }
+      writeColumn(column);
+
+      for (int s = 0; s < STATUSES; s++) {
+         column = ByteBuffer.allocate(moveCounts[s] * Short.BYTES);
+         column.asShortBuffer().put(moves[s], 0, moveCounts[s]);
+         column.position(moveCounts[s] * Short.BYTES);
+         writeColumn(column);
+      }
+
+      games = 0;
+      Arrays.fill(moveCounts, 0);
+   }
+
+   private final DataOutputStream out;
+
+   private final Deflater deflater;
+
+   // The games of the block being gathered, one entry per game, except that
+   // the moves of all the games with each outcome are run together
+   private final byte[] outcomes;
+   private final long[] deals;
+   private final int[] counts;
+   private final long[] nanos;
+   private final short[][] moves;
+   private final int[] moveCounts;
+   private int games;
+
+   private long total;
+
+   // Scratch space for a compressed column
+   private byte[] compressed;
+
+   /**
+    * The most games in each block.
+    */
+   public static final int BLOCK_GAMES = 4096;
+
+   // "KCR2" in ASCII, marking a corpus with a move column per outcome
+   static final int MAGIC = 0x4B435232;
+
+   // The number of outcomes, and so of move columns in each block
+   static final int STATUSES = Solution.Status.values().length;
+}
@@ -0,0 +1,353 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             DealSimulator.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Deal, and then play or solve, a large number of games of Klondike in
+ * parallel, without any user interface. Each numbered deal is shuffled and
+ * laid out the same way as
+ * {@link edu.depauw.csc232.solitaire.klondike.KlondikeGame KlondikeGame} does
+ * it for that number, but on a {@link KlondikeState}. The range of deals is
+ * split recursively on a ForkJoinPool, and each worker thread reuses its own
+ * {@link Solver}. The solvers share one {@link TranspositionTable}, with room
+ * for the node limit of each thread, so its size is fixed however many deals
+ * are run. The searches running at once on different threads keep their
+ * positions ahead of those of deals already finished, and only make room for
+ * each other, deepest first, in a bucket holding nothing else; so the node
+ * count of a deal depends on the number of threads or on their timing only
+ * when that happens near its node limit (see {@link #run(long, long)}).
+ * <p>
+ * Given a {@link SpillFile}, the simulator also records the outcome of each
+ * deal there, as a PERMANENT entry keyed by the opening position, the mode,
+ * and the node limit, through a small table of outcomes of its own. A later
+ * run with the same file, mode, and limit takes the outcome of any deal
+ * already recorded from the file instead of playing it again, so an
+ * interrupted run over a range of deals can be started again and lose only
+ * the deals that were in progress. The node count covers only the deals
+ * actually played.
+ * <p>
+ * Given a {@link CorpusWriter}, the simulator also adds each deal it plays to
+ * the corpus, with its moves, outcome, and time, in the order the deals
+ * finish.
+ * 
+ * @author bhoward
+ */
+public class DealSimulator
+{
+   /**
+    * Construct a simulator.
+    * 
+    * @param mode
+    *           whether to play each deal greedily or search for a solution
+    * @param maxNodes
+    *           the node limit for each solve, or the move limit for each play
+    * @param parallelism
+    *           the number of worker threads
+    */
+   public DealSimulator(Mode mode, long maxNodes, int parallelism)
+   {
+      this(mode, maxNodes, parallelism, null);
+   }
+
+   /**
+    * Construct a simulator whose table spills to the given file, which also
+    * records the outcome of each deal.
+    * 
+    * @param mode
+    * @param maxNodes
+    * @param parallelism
+    * @param spill
+    *           the spill file, or null for none
+    */
+   public DealSimulator(Mode mode, long maxNodes, int parallelism,
+            SpillFile spill)
+   {
+      this.mode = mode;
+      this.maxNodes = maxNodes;
+      this.pool = new ForkJoinPool(parallelism);
+      this.table = new TranspositionTable(maxNodes * parallelism, spill);
+      this.outcomes = (spill != null) ? new TranspositionTable(0, spill)
+         : null;
+      this.solvers = ThreadLocal
+               .withInitial(() -> new Solver(maxNodes, table));
+   }
+
+   /**
+    * @return the number of entries in the table of positions
+    */
+   public int getCapacity()
+   {
+      return table.capacity();
+   }
+
+   /**
+    * @return the number of position and outcome lookups that found their key
+    */
+   public long getHits()
+   {
+      long hits = table.getHits();
+      if (outcomes != null) {
+         hits += outcomes.getHits();
+      }
+      return hits;
+   }
+
+   /**
+    * @return the number of position and outcome lookups that did not find
+    *         their key
+    */
+   public long getMisses()
+   {
+      long misses = table.getMisses();
+      if (outcomes != null) {
+         misses += outcomes.getMisses();
+      }
+      return misses;
+   }
+
+   /**
+    * @return the number of positions and outcomes that were overwritten while
+    *         still in use, or found no room
+    */
+   public long getCollisions()
+   {
+      long collisions = table.getCollisions();
+      if (outcomes != null) {
+         collisions += outcomes.getCollisions();
+      }
+      return collisions;
+   }
+
+   /**
+    * Deal and play (or solve) the given number of consecutively numbered
+    * games. The results depend only on the deal numbers, unless a search
+    * has to give up some of its positions to those of a search on another
+    * thread, which costs it repeated work and may change its node count.
+    * With a spill file, no positions are lost that way, but the results may
+    * still depend on the order in which the deals are run, if the overflow of
+    * one search happens to displace that of another in the file.
+    * 
+    * @param firstDeal
+    *           the number of the first deal
+    * @param deals
+    *           how many deals to run
+    * @return the combined results
+    */
+   public SimulationResult run(long firstDeal, long deals)
+   {
+      return pool.invoke(new DealTask(firstDeal, firstDeal + deals));
+   }
+
+   /**
+    * Release the worker threads.
+    */
+   public void shutdown()
+   {
+      pool.shutdown();
+   }
+
+   /**
+    * Add every deal played from now on to the given corpus, which the caller
+    * closes once the runs are finished.
+    * 
+    * @param corpus
+    *           the corpus, or null for none
+    */
+   public void setCorpus(CorpusWriter corpus)
+   {
+      this.corpus = corpus;
+   }
+
+   // Play or solve a single game from its opening position, and add its
+   // outcome to the result, unless the outcome is already recorded
+   private void simulate(long deal, KlondikeState state,
+            SimulationResult result)
+   {
+      long key = 0;
+      if (outcomes != null) {
+         key = state.hash() ^ ((maxNodes << 1 | mode.ordinal()) * GOLDEN_GAMMA);
+         int outcome = outcomes.get(key, TranspositionTable.PERMANENT);
+         if (outcome != TranspositionTable.MISSING) {
+            result.add(Solution.Status.values()[outcome & STATUS_MASK],
+                     outcome >>> STATUS_BITS, 0);
+            return;
+         }
+      }
+
+      Solver solver = solvers.get();
+      long start = System.nanoTime();
+      Solution solution;
+      if (mode == Mode.PLAY) {
+         solution = solver.play(state,
+                  (int) Math.min(maxNodes, Integer.MAX_VALUE));
+      }
+      else {
+         solution = solver.solve(state);
+      }
+      long time = System.nanoTime() - start;
+      result.add(solution);
+
+      if (corpus != null) {
+         try {
+            corpus.add(deal, solution.getStatus(), solution.getMoves(), time);
+         }
+         catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+      }
+
+      if (outcomes != null) {
+         int moves = Math.min(solution.getMoves().length, MAX_RECORDED_MOVES);
+         outcomes.put(key, TranspositionTable.PERMANENT, 0,
+                  moves << STATUS_BITS | solution.getStatus().ordinal());
+      }
+   }
+
+   /**
+    * Run a simulation from the command line. The optional arguments are the
+    * number of deals (default 10000), "solve" or "play" (default solve), the
+    * node limit per deal (default 200000), the number of threads (default is
+    * the number of processors), the number of the first deal (default 1),
+    * the name of a spill file to hold the overflow of the table and the
+    * outcomes of the deals (default none, also given by "-"), and the name of
+    * a corpus file to write the games to (default none).
+    * 
+    * @param args
+    * @throws IOException
+    *            if the spill file or corpus cannot be opened or written
+    */
+   public static void main(String[] args) throws IOException
+   {
+      long deals = (args.length > 0) ? Long.parseLong(args[0]) : 10000;
+      Mode mode = (args.length > 1) ? Mode.valueOf(args[1].toUpperCase())
+         : Mode.SOLVE;
+      long maxNodes = (args.length > 2) ? Long.parseLong(args[2]) : 200000;
+      int threads = (args.length > 3) ? Integer.parseInt(args[3])
+         : Runtime.getRuntime().availableProcessors();
+      long firstDeal = (args.length > 4) ? Long.parseLong(args[4]) : 1;
+      SpillFile spill = (args.length > 5 && !args[5].equals("-"))
+         ? SpillFile.open(new File(args[5]), maxNodes * threads * 16) : null;
+      CorpusWriter corpus = (args.length > 6)
+         ? CorpusWriter.open(new File(args[6])) : null;
+
+      DealSimulator simulator = new DealSimulator(mode, maxNodes, threads,
+               spill);
+      simulator.setCorpus(corpus);
+      long start = System.nanoTime();
+      SimulationResult result = simulator.run(firstDeal, deals);
+      double seconds = (System.nanoTime() - start) / 1e9;
+      simulator.shutdown();
+
+      System.out.println(result);
+      System.out.printf("%d threads, %.2f s, %.1f deals/s, %.0f nodes/s%n",
+               threads, seconds, result.getDeals() / seconds,
+               result.getNodes() / seconds);
+
+      System.out.printf("table: %d entries, %d hits, %d misses, "
+         + "%d collisions%n", simulator.getCapacity(), simulator.getHits(),
+               simulator.getMisses(), simulator.getCollisions());
+
+      if (spill != null) {
+         System.out.printf("spill: %d of %d entries used%n", spill.size(),
+                  spill.capacity());
+         spill.close();
+      }
+      if (corpus != null) {
+         System.out.printf("corpus: %d games%n", corpus.size());
+         corpus.close();
+      }
+   }
+
+   private final Mode mode;
+
+   private final long maxNodes;
+
+   private final ForkJoinPool pool;
+
+   // The table of positions shared by all the solvers
+   private final TranspositionTable table;
+
+   // The table of recorded outcomes, or null if there is no spill file
+   private final TranspositionTable outcomes;
+
+   private CorpusWriter corpus;
+
+   private final ThreadLocal<Solver> solvers;
+
+   // Split ranges of deals until they are at most this long
+   private static final long LEAF_DEALS = 4;
+
+   // A recorded outcome packs the number of moves above the status
+   private static final int STATUS_BITS = 2;
+
+   private static final int STATUS_MASK = (1 << STATUS_BITS) - 1;
+
+   private static final int MAX_RECORDED_MOVES = 0xFFFF >>> STATUS_BITS;
+
+   private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+   /**
+    * What to do with each deal.
+    */
+   public enum Mode
+   {
+      /**
+       * Play greedily, without backtracking.
+       */
+      PLAY,
+
+      /**
+       * Search for a winning sequence of moves.
+       */
+      SOLVE
+   }
+
+   private class DealTask extends RecursiveTask<SimulationResult>
+   {
+      DealTask(long first, long last)
+      {
+         this.first = first;
+         this.last = last;
+      }
+
+      @Override
+      protected SimulationResult compute()
+      {
+         if (last - first > LEAF_DEALS) {
+            long middle = (first + last) >>> 1;
+            DealTask left = new DealTask(first, middle);
+            left.fork();
+            SimulationResult right = new DealTask(middle, last).compute();
+            return left.join().combine(right);
+         }
+
+         SimulationResult result = new SimulationResult();
+         KlondikeState state = new KlondikeState();
+         for (long deal = first; deal < last; deal++) {
+            state.deal(deal);
+            simulate(deal, state, result);
+         }
+         return result;
+      }
+
+      private final long first;
+
+      private final long last;
+
+      private static final long serialVersionUID = 1L;
+   }
+}
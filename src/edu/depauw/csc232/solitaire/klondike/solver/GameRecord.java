@@ -0,0 +1,97 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             GameRecord.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+/**
+ * One game in a corpus written by {@link CorpusWriter}: the number of the
+ * deal, the moves played from its opening position, how the game ended, and
+ * how long it took.
+ * 
+ * @author bhoward
+ */
+public class GameRecord
+{
+   /**
+    * Construct a record of one game.
+    * 
+    * @param deal
+    *           the deal number
+    * @param status
+    *           how the game ended
+    * @param moves
+    *           the moves played, encoded by {@link KlondikeMove}
+    * @param nanos
+    *           the time taken, in nanoseconds, or 0 if it is not known
+    */
+   public GameRecord(long deal, Solution.Status status, int[] moves,
+            long nanos)
+   {
+      this.deal = deal;
+      this.status = status;
+      this.moves = moves.clone();
+      this.nanos = nanos;
+   }
+
+   /**
+    * @return the deal number
+    */
+   public long getDeal()
+   {
+      return deal;
+   }
+
+   /**
+    * @return the number of moves played
+    */
+   public int getMoveCount()
+   {
+      return moves.length;
+   }
+
+   /**
+    * @return the moves played, encoded by {@link KlondikeMove}, in order
+    */
+   public int[] getMoves()
+   {
+      return moves.clone();
+   }
+
+   /**
+    * @return the time taken, in nanoseconds, or 0 if it is not known
+    */
+   public long getNanos()
+   {
+      return nanos;
+   }
+
+   /**
+    * @return how the game ended
+    */
+   public Solution.Status getStatus()
+   {
+      return status;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "deal " + deal + ": " + status + " in " + moves.length
+         + " moves";
+   }
+
+   private final long deal;
+
+   private final Solution.Status status;
+
+   private final int[] moves;
+
+   private final long nanos;
+}
@@ -0,0 +1,148 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             KlondikeMove.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+/**
+ * Static helpers for the packed int encoding of a move on a
+ * {@link KlondikeState}. A move records its kind, the source and target pile
+ * indices, and the number of cards moved; applying a move may also set the
+ * REVEALED bit, which records that the source tableau had its new top card
+ * turned over (so that undo can turn it back).
+ * 
+ * @author bhoward
+ */
+public final class KlondikeMove
+{
+   private KlondikeMove()
+   {
+   }
+
+   /**
+    * @param move
+    * @return the number of cards moved
+    */
+   public static int count(int move)
+   {
+      return (move >>> 8) & 0x1F;
+   }
+
+   /**
+    * Deal one card from the stock face-up onto the waste.
+    * 
+    * @return the encoded move
+    */
+   public static int draw()
+   {
+      return make(DRAW, KlondikeState.STOCK, KlondikeState.WASTE, 1);
+   }
+
+   /**
+    * @param move
+    * @return the index of the source pile
+    */
+   public static int from(int move)
+   {
+      return move & 0xF;
+   }
+
+   /**
+    * @param move
+    * @return true if applying the move turned over the new top card of the
+    *         source pile
+    */
+   public static boolean isRevealed(int move)
+   {
+      return (move & REVEALED) != 0;
+   }
+
+   /**
+    * @param move
+    * @return one of PLAY, DRAW, or RECYCLE
+    */
+   public static int kind(int move)
+   {
+      return (move >>> 13) & 0x3;
+   }
+
+   /**
+    * Move the given number of cards from the top of one pile to another,
+    * preserving their order.
+    * 
+    * @param from
+    * @param to
+    * @param count
+    * @return the encoded move
+    */
+   public static int play(int from, int to, int count)
+   {
+      return make(PLAY, from, to, count);
+   }
+
+   /**
+    * Turn the whole waste pile over to replenish the empty stock.
+    * 
+    * @param count
+    *           the number of cards on the waste
+    * @return the encoded move
+    */
+   public static int recycle(int count)
+   {
+      return make(RECYCLE, KlondikeState.WASTE, KlondikeState.STOCK, count);
+   }
+
+   /**
+    * @param move
+    * @return the index of the target pile
+    */
+   public static int to(int move)
+   {
+      return (move >>> 4) & 0xF;
+   }
+
+   /**
+    * @param move
+    * @return a short human-readable description, such as "T3 -> F1 (1)"
+    */
+   public static String toString(int move)
+   {
+      switch (kind(move)) {
+      case DRAW:
+         return "draw";
+      case RECYCLE:
+         return "recycle";
+      default:
+         return KlondikeState.pileName(from(move)) + " -> "
+            + KlondikeState.pileName(to(move)) + " (" + count(move) + ")";
+      }
+   }
+
+   /**
+    * @param move
+    * @return the move with its REVEALED bit cleared
+    */
+   public static int withoutReveal(int move)
+   {
+      return move & ~REVEALED;
+   }
+
+   private static int make(int kind, int from, int to, int count)
+   {
+      return (kind << 13) | (count << 8) | (to << 4) | from;
+   }
+
+   public static final int PLAY = 1;
+
+   public static final int DRAW = 2;
+
+   public static final int RECYCLE = 3;
+
+   static final int REVEALED = 1 << 15;
+}
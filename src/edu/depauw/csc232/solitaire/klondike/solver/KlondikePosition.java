@@ -0,0 +1,38 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             KlondikePosition.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+/**
+ * Read-only access to the cards of a Klondike position, using the pile
+ * numbering and card encoding of {@link KlondikeState}. This lets the
+ * {@link MoveGenerator} examine either a KlondikeState or the piles of a game
+ * in progress, without copying one into the other.
+ * 
+ * @author bhoward
+ */
+public interface KlondikePosition
+{
+   /**
+    * Return the card at the given index of a pile, counting from the bottom
+    * at index 0.
+    * 
+    * @param pile
+    * @param index
+    * @return the encoded card
+    */
+   int card(int pile, int index);
+
+   /**
+    * @param pile
+    * @return the number of cards in the given pile
+    */
+   int size(int pile);
+}
@@ -0,0 +1,534 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             KlondikeState.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+import java.util.Arrays;
+
+import edu.depauw.csc232.solitaire.core.BoardSnapshot;
+import edu.depauw.csc232.solitaire.core.Card;
+import edu.depauw.csc232.solitaire.core.Pile;
+import edu.depauw.csc232.solitaire.model.Shuffle;
+
+/**
+ * A compact, mutable encoding of a Klondike position, suitable for searching
+ * without touching the user interface. The whole position lives in a single
+ * byte array: the first thirteen bytes hold the pile sizes, followed by a
+ * fixed-capacity region for each pile. Each card is one byte, holding its id
+ * (suit * 13 + value - 1, so 0 to 51) plus the FACE_UP bit.
+ * <p>
+ * Piles are numbered as in
+ * {@link edu.depauw.csc232.solitaire.klondike.KlondikeGame KlondikeGame}: the
+ * stock, the waste, the
+ * seven tableaus, and then the four foundations. Within a pile, index 0 is the
+ * bottom card.
+ * 
+ * @author bhoward
+ */
+public final class KlondikeState implements KlondikePosition
+{
+   /**
+    * Construct a position with all piles empty.
+    */
+   public KlondikeState()
+   {
+      this.data = new byte[LENGTH];
+   }
+
+   /**
+    * Construct a copy of the given position.
+    * 
+    * @param other
+    */
+   public KlondikeState(KlondikeState other)
+   {
+      this.data = other.data.clone();
+   }
+
+   /**
+    * Apply a move to this position. If the move exposes a face-down card on
+    * a tableau, that card is turned over, just as
+    * {@link edu.depauw.csc232.solitaire.klondike.KlondikeGame KlondikeGame}
+    * does after a drag; the returned move has its REVEALED bit set in that
+    * case, and must be the one passed to {@link #undo(int)}.
+    * 
+    * @param move
+    *           a move encoded by {@link KlondikeMove}
+    * @return the applied move, to be used for undo
+    */
+   public int apply(int move)
+   {
+      int from = KlondikeMove.from(move);
+      int to = KlondikeMove.to(move);
+
+      switch (KlondikeMove.kind(move)) {
+      case KlondikeMove.DRAW:
+         push(to, (byte) (pop(from) | FACE_UP));
+         return move;
+
+      case KlondikeMove.RECYCLE:
+         flipAll(from, to);
+         return move;
+
+      default:
+         transfer(from, to, KlondikeMove.count(move));
+         if (isTableau(from) && data[from] > 0) {
+            int top = OFFSET[from] + data[from] - 1;
+            if ((data[top] & FACE_UP) == 0) {
+               data[top] |= FACE_UP;
+               return move | KlondikeMove.REVEALED;
+            }
+         }
+         return move;
+      }
+   }
+
+   /**
+    * Return the card at the given index of a pile, counting from the bottom
+    * at index 0.
+    * 
+    * @param pile
+    * @param index
+    * @return the encoded card
+    */
+   @Override
+   public int card(int pile, int index)
+   {
+      return data[OFFSET[pile] + index];
+   }
+
+   /**
+    * Replace this position with a copy of the other.
+    * 
+    * @param other
+    */
+   public void copyFrom(KlondikeState other)
+   {
+      System.arraycopy(other.data, 0, data, 0, LENGTH);
+   }
+
+   /**
+    * Replace this position with the start of a new game, dealt from the given
+    * deck exactly as
+    * {@link edu.depauw.csc232.solitaire.klondike.KlondikeGame#dealGame
+    * KlondikeGame.dealGame} does:
+    * tableau i receives the top i + 1 cards of the deck, keeping their order,
+    * and has its top card turned face-up; the rest of the deck becomes the
+    * stock.
+    * 
+    * @param deck
+    *           52 card ids, from the bottom of the deck to the top
+    */
+   public void deal(byte[] deck)
+   {
+      Arrays.fill(data, 0, PILES, (byte) 0);
+      int n = deck.length;
+      for (int i = 0; i < TABLEAUS; i++) {
+         int pile = TABLEAU + i;
+         n -= i + 1;
+         System.arraycopy(deck, n, data, OFFSET[pile], i + 1);
+         data[OFFSET[pile] + i] |= FACE_UP;
+         data[pile] = (byte) (i + 1);
+      }
+      System.arraycopy(deck, 0, data, OFFSET[STOCK], n);
+      data[STOCK] = (byte) n;
+   }
+
+   /**
+    * Replace this position with the start of the numbered deal. This is the
+    * same game that a KlondikeGame constructed with that deal number plays.
+    * 
+    * @param dealNumber
+    */
+   public void deal(long dealNumber)
+   {
+      byte[] deck = newDeck();
+      Shuffle.shuffle(deck, Shuffle.forDeal(dealNumber));
+      deal(deck);
+   }
+
+   /**
+    * Return the number of cards that have been played to the foundation of
+    * the given suit, wherever that foundation is.
+    * 
+    * @param suit
+    *           the suit ordinal
+    * @return the number of cards (0 to 13)
+    */
+   public int foundationCount(int suit)
+   {
+      for (int f = FOUNDATION; f < PILES; f++) {
+         int n = data[f];
+         if (n > 0 && suitOf(data[OFFSET[f] + n - 1]) == suit) {
+            return n;
+         }
+      }
+      return 0;
+   }
+
+   /**
+    * Compute a 64-bit key for this position. The order of the foundations
+    * does not affect the key.
+    * 
+    * @return the key
+    */
+   public long hash()
+   {
+      long h = FNV_BASIS;
+      for (int p = STOCK; p < FOUNDATION; p++) {
+         int n = data[p];
+         h = (h ^ (n | 0x80)) * FNV_PRIME;
+         for (int i = OFFSET[p], end = i + n; i < end; i++) {
+            h = (h ^ data[i]) * FNV_PRIME;
+         }
+      }
+
+      long foundations = 0;
+      for (int f = FOUNDATION; f < PILES; f++) {
+         int n = data[f];
+         if (n > 0) {
+            int suit = suitOf(data[OFFSET[f] + n - 1]);
+            foundations += mix((suit << 4) | n);
+         }
+      }
+
+      return mix(h ^ foundations);
+   }
+
+   /**
+    * @return true if all four foundations hold thirteen cards
+    */
+   public boolean isWon()
+   {
+      for (int f = FOUNDATION; f < PILES; f++) {
+         if (data[f] != 13) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private void load(int index, KlondikePosition position)
+   {
+      int n = position.size(index);
+      checkCapacity(index, n);
+      for (int i = 0; i < n; i++) {
+         data[OFFSET[index] + i] = (byte) position.card(index, i);
+      }
+      data[index] = (byte) n;
+   }
+
+   private void load(int index, BoardSnapshot snapshot, int pile)
+   {
+      int n = snapshot.size(pile);
+      checkCapacity(index, n);
+      snapshot.copyCodes(pile, data, OFFSET[index]);
+      data[index] = (byte) n;
+   }
+
+   private static void checkCapacity(int index, int n)
+   {
+      if (n > CAPACITY[index]) {
+         throw new IllegalArgumentException(
+                  "Too many cards on " + pileName(index) + ": " + n);
+      }
+   }
+
+   /**
+    * @param pile
+    * @return the number of cards in the given pile
+    */
+   @Override
+   public int size(int pile)
+   {
+      return data[pile];
+   }
+
+   /**
+    * @param pile
+    * @return the top card of the given pile, or -1 if it is empty
+    */
+   public int top(int pile)
+   {
+      int n = data[pile];
+      return (n == 0) ? -1 : data[OFFSET[pile] + n - 1];
+   }
+
+   @Override
+   public String toString()
+   {
+      StringBuilder builder = new StringBuilder();
+      for (int p = 0; p < PILES; p++) {
+         builder.append(pileName(p)).append(':');
+         for (int i = 0; i < data[p]; i++) {
+            int card = card(p, i);
+            builder.append(' ').append(isFaceUp(card) ? "" : "[")
+               .append(cardName(card)).append(isFaceUp(card) ? "" : "]");
+         }
+         builder.append('\n');
+      }
+      return builder.toString();
+   }
+
+   /**
+    * Reverse the effect of a move returned by {@link #apply(int)}.
+    * 
+    * @param move
+    */
+   public void undo(int move)
+   {
+      int from = KlondikeMove.from(move);
+      int to = KlondikeMove.to(move);
+
+      switch (KlondikeMove.kind(move)) {
+      case KlondikeMove.DRAW:
+         push(from, (byte) (pop(to) & ~FACE_UP));
+         break;
+
+      case KlondikeMove.RECYCLE:
+         flipAll(to, from);
+         break;
+
+      default:
+         if (KlondikeMove.isRevealed(move)) {
+            data[OFFSET[from] + data[from] - 1] &= ~FACE_UP;
+         }
+         transfer(to, from, KlondikeMove.count(move));
+      }
+   }
+
+   // Turn over all of the cards in one pile onto another (which must be
+   // empty), reversing their order and their face-up status
+   private void flipAll(int from, int to)
+   {
+      int n = data[from];
+      int src = OFFSET[from] + n - 1;
+      int dst = OFFSET[to];
+      for (int i = 0; i < n; i++) {
+         data[dst + i] = (byte) (data[src - i] ^ FACE_UP);
+      }
+      data[from] = 0;
+      data[to] = (byte) n;
+   }
+
+   private byte pop(int pile)
+   {
+      int n = --data[pile];
+      return data[OFFSET[pile] + n];
+   }
+
+   private void push(int pile, byte card)
+   {
+      int n = data[pile]++;
+      data[OFFSET[pile] + n] = card;
+   }
+
+   private void transfer(int from, int to, int count)
+   {
+      int n = data[from] - count;
+      System.arraycopy(data, OFFSET[from] + n, data, OFFSET[to] + data[to],
+               count);
+      data[from] = (byte) n;
+      data[to] += count;
+   }
+
+   /**
+    * Encode a position, such as the live view of a game in progress given by
+    * {@link edu.depauw.csc232.solitaire.klondike.KlondikeGame#getPosition()
+    * KlondikeGame.getPosition()}. Foundation piles keep their positions, so
+    * moves found on the returned state may be played directly on the
+    * corresponding piles of the game.
+    * 
+    * @param position
+    * @return a new KlondikeState
+    */
+   public static KlondikeState fromPosition(KlondikePosition position)
+   {
+      KlondikeState state = new KlondikeState();
+      for (int p = 0; p < PILES; p++) {
+         state.load(p, position);
+      }
+      return state;
+   }
+
+   /**
+    * Encode the position in a snapshot of the Board of a KlondikeGame, whose
+    * piles are added to the board in the order waste, stock, tableaus, and
+    * foundations. Unlike {@link #fromPosition(KlondikePosition)} on a live
+    * game, this may be called from any thread, since the snapshot never
+    * changes.
+    * 
+    * @param snapshot
+    * @return a new KlondikeState
+    */
+   public static KlondikeState fromSnapshot(BoardSnapshot snapshot)
+   {
+      if (snapshot.getPileCount() != PILES) {
+         throw new IllegalArgumentException("Not a Klondike board: "
+            + snapshot.getPileCount() + " piles");
+      }
+
+      KlondikeState state = new KlondikeState();
+      state.load(STOCK, snapshot, 1);
+      state.load(WASTE, snapshot, 0);
+      for (int p = TABLEAU; p < PILES; p++) {
+         state.load(p, snapshot, p);
+      }
+      return state;
+   }
+
+   /**
+    * @param card
+    * @return the one-byte encoding of the given card
+    */
+   public static int encode(Card card)
+   {
+      return card.getCode();
+   }
+
+   /**
+    * @param card
+    * @return a two-character abbreviation such as "QH"
+    */
+   public static String cardName(int card)
+   {
+      return "" + "A23456789TJQK".charAt(valueOf(card) - 1)
+         + "CDHS".charAt(suitOf(card));
+   }
+
+   /**
+    * @param card
+    * @return true if the card is face-up
+    */
+   public static boolean isFaceUp(int card)
+   {
+      return (card & FACE_UP) != 0;
+   }
+
+   /**
+    * @param card
+    * @return true if the card is a diamond or a heart
+    */
+   public static boolean isRed(int card)
+   {
+      int suit = suitOf(card);
+      return suit == 1 || suit == 2;
+   }
+
+   /**
+    * @param pile
+    * @return true if the index is one of the seven tableaus
+    */
+   public static boolean isTableau(int pile)
+   {
+      return pile >= TABLEAU && pile < FOUNDATION;
+   }
+
+   /**
+    * @return the 52 card ids of a new deck, in the order that
+    *         {@link edu.depauw.csc232.solitaire.core.CardMover#addDeck(Pile)
+    *         CardMover.addDeck} adds them: clubs, diamonds, hearts, and then
+    *         spades, each from ace to king
+    */
+   public static byte[] newDeck()
+   {
+      byte[] deck = new byte[52];
+      for (int i = 0; i < deck.length; i++) {
+         deck[i] = (byte) i;
+      }
+      return deck;
+   }
+
+   /**
+    * @param pile
+    * @return a short name for the pile index, such as "T3" or "F1"
+    */
+   public static String pileName(int pile)
+   {
+      if (pile == STOCK) {
+         return "stock";
+      }
+      else if (pile == WASTE) {
+         return "waste";
+      }
+      else if (isTableau(pile)) {
+         return "T" + (pile - TABLEAU + 1);
+      }
+      else {
+         return "F" + (pile - FOUNDATION + 1);
+      }
+   }
+
+   /**
+    * @param card
+    * @return the suit ordinal (0 to 3) of the card
+    */
+   public static int suitOf(int card)
+   {
+      return (card & ~FACE_UP) / 13;
+   }
+
+   /**
+    * @param card
+    * @return the value (1 to 13) of the card
+    */
+   public static int valueOf(int card)
+   {
+      return (card & ~FACE_UP) % 13 + 1;
+   }
+
+   private static long mix(long z)
+   {
+      // finalizer from SplitMix64
+      z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+      z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+      return z ^ (z >>> 31);
+   }
+
+   private final byte[] data;
+
+   public static final int STOCK = 0;
+
+   public static final int WASTE = 1;
+
+   public static final int TABLEAU = 2;
+
+   public static final int FOUNDATION = 9;
+
+   public static final int PILES = 13;
+
+   public static final int TABLEAUS = 7;
+
+   public static final int FOUNDATIONS = 4;
+
+   public static final int FACE_UP = Card.FACE_UP;
+
+   // Largest possible pile sizes: 24 cards are left in the stock after the
+   // deal, and a tableau may hold six face-down cards under a run of 13
+   private static final int[] CAPACITY = { 24, 24, 19, 19, 19, 19, 19, 19, 19,
+      13, 13, 13, 13 };
+
+   private static final int[] OFFSET = new int[PILES];
+
+   private static final int LENGTH;
+
+   static {
+      int offset = PILES;
+      for (int p = 0; p < PILES; p++) {
+         OFFSET[p] = offset;
+         offset += CAPACITY[p];
+      }
+      LENGTH = offset;
+   }
+
+   private static final long FNV_BASIS = 0xCBF29CE484222325L;
+
+   private static final long FNV_PRIME = 0x100000001B3L;
+}
@@ -0,0 +1,186 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             MoveGenerator.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+/**
+ * List the legal moves in a Klondike position, following the same rules as
+ * the pile strategies of
+ * {@link edu.depauw.csc232.solitaire.klondike.KlondikeGame KlondikeGame}. The
+ * position is only read, never changed, and the moves are written into an
+ * array supplied by the caller, so generating moves allocates nothing; an
+ * array of {@link #MAX_MOVES} entries is always large enough.
+ * <p>
+ * The moves from each source pile are listed with the moves to the
+ * foundations first, then the moves to the tableaus, each in pile order, with
+ * at most one move to each target. This is the order in which a click on the
+ * pile looks for somewhere to send its cards. Moving a card between two
+ * foundations is allowed by the rules but never useful, so it is not listed.
+ * 
+ * @author bhoward
+ */
+public final class MoveGenerator
+{
+   private MoveGenerator()
+   {
+   }
+
+   /**
+    * List every legal move in the position: those from the waste, the
+    * tableaus, and the foundations, followed by drawing a card or recycling
+    * the waste.
+    * 
+    * @param position
+    * @param moves
+    *           the array to receive the encoded moves, starting at index 0
+    * @return the number of moves
+    */
+   public static int generate(KlondikePosition position, int[] moves)
+   {
+      int n = 0;
+      for (int p = KlondikeState.WASTE; p < KlondikeState.PILES; p++) {
+         n = addMoves(position, p, moves, n);
+      }
+      return addMoves(position, KlondikeState.STOCK, moves, n);
+   }
+
+   /**
+    * List the legal moves that take cards from the given pile. The draw and
+    * recycle moves are both listed under the stock, since a click on the
+    * stock is what makes them.
+    * 
+    * @param position
+    * @param from
+    *           the index of the source pile
+    * @param moves
+    *           the array to receive the encoded moves, starting at index 0
+    * @return the number of moves
+    */
+   public static int generate(KlondikePosition position, int from,
+            int[] moves)
+   {
+      return addMoves(position, from, moves, 0);
+   }
+
+   /**
+    * Return true if the card may be played on a foundation with the given top
+    * card: an ace on an empty foundation, or the next card of the same suit.
+    * 
+    * @param card
+    * @param top
+    *           the top card of the foundation, or -1 if it is empty
+    * @return true if the card may be played there
+    */
+   public static boolean canFound(int card, int top)
+   {
+      if (top < 0) {
+         return KlondikeState.valueOf(card) == 1;
+      }
+      return KlondikeState.suitOf(card) == KlondikeState.suitOf(top)
+         && KlondikeState.valueOf(card) == KlondikeState.valueOf(top) + 1;
+   }
+
+   /**
+    * Return true if a run with the given bottom card may be played on a
+    * tableau with the given top card: a king on an empty tableau, or a card of
+    * the opposite color and one less in value on a face-up card.
+    * 
+    * @param card
+    * @param top
+    *           the top card of the tableau, or -1 if it is empty
+    * @return true if the run may be played there
+    */
+   public static boolean canBuild(int card, int top)
+   {
+      if (top < 0) {
+         return KlondikeState.valueOf(card) == 13;
+      }
+      return KlondikeState.isFaceUp(top)
+         && KlondikeState.isRed(card) != KlondikeState.isRed(top)
+         && KlondikeState.valueOf(card) + 1 == KlondikeState.valueOf(top);
+   }
+
+   // Append the moves from the given pile to the array, starting at index n;
+   // return the new number of moves
+   private static int addMoves(KlondikePosition position, int from,
+            int[] moves, int n)
+   {
+      int size = position.size(from);
+      if (from == KlondikeState.STOCK) {
+         int waste = position.size(KlondikeState.WASTE);
+         if (size > 0) {
+            moves[n++] = KlondikeMove.draw();
+         }
+         else if (waste > 0) {
+            moves[n++] = KlondikeMove.recycle(waste);
+         }
+         return n;
+      }
+
+      if (size == 0) {
+         return n;
+      }
+
+      int card = position.card(from, size - 1);
+      if (!KlondikeState.isFaceUp(card)) {
+         return n;
+      }
+
+      // A single card to a foundation
+      if (from < KlondikeState.FOUNDATION) {
+         for (int f = KlondikeState.FOUNDATION; f < KlondikeState.PILES; f++) {
+            if (canFound(card, top(position, f))) {
+               moves[n++] = KlondikeMove.play(from, f, 1);
+            }
+         }
+      }
+
+      // Any number of face-up cards from a tableau, or the top card of the
+      // waste or a foundation, to a tableau. The face-up cards of a tableau
+      // always form a run, so only the run whose bottom card is one less than
+      // the target's top card (or is a king, on an empty tableau) can go
+      int limit = KlondikeState.isTableau(from) ? size : 1;
+      int value = KlondikeState.valueOf(card);
+      for (int t = KlondikeState.TABLEAU; t < KlondikeState.FOUNDATION; t++) {
+         if (t == from) {
+            continue;
+         }
+
+         int top = top(position, t);
+         int bottomValue = (top < 0) ? 13 : KlondikeState.valueOf(top) - 1;
+         int count = bottomValue - value + 1;
+         if (count < 1 || count > limit) {
+            continue;
+         }
+
+         int bottom = position.card(from, size - count);
+         if (KlondikeState.isFaceUp(bottom) && canBuild(bottom, top)) {
+            moves[n++] = KlondikeMove.play(from, t, count);
+         }
+      }
+
+      return n;
+   }
+
+   private static int top(KlondikePosition position, int pile)
+   {
+      int size = position.size(pile);
+      return (size == 0) ? -1 : position.card(pile, size - 1);
+   }
+
+   /**
+    * An upper bound on the number of legal moves in any position: the waste
+    * card to each foundation and tableau, the top card of each tableau to
+    * each foundation, each card of a full tableau (with those above it) to
+    * the other tableaus, each foundation card to each tableau, and a draw or
+    * recycle.
+    */
+   public static final int MAX_MOVES = 11 + 7 * (4 + 6 * 19) + 4 * 7 + 1;
+}
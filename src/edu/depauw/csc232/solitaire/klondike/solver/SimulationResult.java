@@ -0,0 +1,143 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             SimulationResult.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+/**
+ * Totals collected by a {@link DealSimulator} over some range of deals.
+ * Results for separate ranges are merged with {@link #combine}.
+ * 
+ * @author bhoward
+ */
+public class SimulationResult
+{
+   /**
+    * Construct an empty result, covering no deals.
+    */
+   public SimulationResult()
+   {
+   }
+
+   /**
+    * Add the outcome of one deal to these totals.
+    * 
+    * @param solution
+    */
+   void add(Solution solution)
+   {
+      add(solution.getStatus(), solution.getMoves().length,
+               solution.getNodes());
+   }
+
+   /**
+    * Add the outcome of one deal, given by its parts, to these totals.
+    * 
+    * @param status
+    * @param moves
+    *           the number of moves in the solution
+    * @param nodeCount
+    *           the number of positions examined
+    */
+   void add(Solution.Status status, int moves, long nodeCount)
+   {
+      deals++;
+      nodes += nodeCount;
+      if (status == Solution.Status.SOLVED) {
+         wins++;
+         winningMoves += moves;
+      }
+      else if (status == Solution.Status.ABORTED) {
+         aborted++;
+      }
+   }
+
+   /**
+    * @param other
+    * @return a new result holding the totals of this and the other result
+    */
+   public SimulationResult combine(SimulationResult other)
+   {
+      SimulationResult result = new SimulationResult();
+      result.deals = deals + other.deals;
+      result.wins = wins + other.wins;
+      result.aborted = aborted + other.aborted;
+      result.winningMoves = winningMoves + other.winningMoves;
+      result.nodes = nodes + other.nodes;
+      return result;
+   }
+
+   /**
+    * @return the number of deals that hit the node or move limit
+    */
+   public long getAborted()
+   {
+      return aborted;
+   }
+
+   /**
+    * @return the average number of moves in a won game, or 0 if none were won
+    */
+   public double getAverageMoves()
+   {
+      return (wins == 0) ? 0 : (double) winningMoves / wins;
+   }
+
+   /**
+    * @return the number of deals played or solved
+    */
+   public long getDeals()
+   {
+      return deals;
+   }
+
+   /**
+    * @return the total number of positions examined
+    */
+   public long getNodes()
+   {
+      return nodes;
+   }
+
+   /**
+    * @return the fraction of deals that were won, from 0 to 1
+    */
+   public double getWinRate()
+   {
+      return (deals == 0) ? 0 : (double) wins / deals;
+   }
+
+   /**
+    * @return the number of deals that were won
+    */
+   public long getWins()
+   {
+      return wins;
+   }
+
+   @Override
+   public String toString()
+   {
+      return String.format(
+               "%d deals, %d won (%.2f%%), %d aborted, %.1f moves per win, "
+                  + "%d nodes",
+               deals, wins, 100 * getWinRate(), aborted, getAverageMoves(),
+               nodes);
+   }
+
+   private long deals;
+
+   private long wins;
+
+   private long aborted;
+
+   private long winningMoves;
+
+   private long nodes;
+}
@@ -0,0 +1,106 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             Solution.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+/**
+ * The outcome of a {@link Solver} search: whether the position was won, and
+ * if so the sequence of moves that wins it.
+ * 
+ * @author bhoward
+ */
+public class Solution
+{
+   Solution(Status status, int[] moves, long nodes)
+   {
+      this.status = status;
+      this.moves = moves;
+      this.nodes = nodes;
+   }
+
+   /**
+    * @return the winning moves, encoded by {@link KlondikeMove}, in the order
+    *         they should be played; empty unless the status is SOLVED
+    */
+   public int[] getMoves()
+   {
+      return moves.clone();
+   }
+
+   /**
+    * @return the number of positions examined by the search
+    */
+   public long getNodes()
+   {
+      return nodes;
+   }
+
+   /**
+    * @return the outcome of the search
+    */
+   public Status getStatus()
+   {
+      return status;
+   }
+
+   /**
+    * @return true if a winning sequence was found
+    */
+   public boolean isSolved()
+   {
+      return status == Status.SOLVED;
+   }
+
+   @Override
+   public String toString()
+   {
+      StringBuilder builder = new StringBuilder();
+      builder.append(status).append(" after ").append(nodes).append(" nodes");
+      for (int i = 0; i < moves.length; i++) {
+         builder.append(i % 10 == 0 ? "\n  " : ", ");
+         builder.append(KlondikeMove.toString(moves[i]));
+      }
+      return builder.toString();
+   }
+
+   private final Status status;
+
+   private final int[] moves;
+
+   private final long nodes;
+
+   /**
+    * The possible results of a search.
+    */
+   public enum Status
+   {
+      /**
+       * A winning sequence of moves was found.
+       */
+      SOLVED,
+
+      /**
+       * Every position reachable with the moves the solver considers was
+       * examined without finding a win.
+       */
+      UNSOLVABLE,
+
+      /**
+       * The search stopped at its node limit, or was interrupted, before
+       * reaching a conclusion.
+       */
+      ABORTED,
+
+      /**
+       * A greedy playout ran out of moves leading to new positions.
+       */
+      STUCK
+   }
+}
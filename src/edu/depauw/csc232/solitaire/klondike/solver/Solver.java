@@ -0,0 +1,403 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             Solver.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+import java.util.Arrays;
+
+/**
+ * A depth-first search for a winning sequence of moves from a
+ * {@link KlondikeState}. The search works on a single mutable copy of the
+ * position, applying and undoing moves in place, and records every position it
+ * has entered in a {@link TranspositionTable} so that no position is searched
+ * twice. Nothing is allocated per node. Several solvers, on different
+ * threads, may share one table; each search has its own search number in the
+ * table, so that searches do not see each other's positions, and keeps its
+ * entries ahead of those of searches already finished. A search stops early,
+ * as if it had reached its node limit, if the thread running it is
+ * interrupted.
+ * <p>
+ * The moves tried in each position are drawn from the legal moves listed by
+ * {@link MoveGenerator}, so the solver and the game follow the same rules.
+ * To keep the branching factor down, some legal moves are never tried: cards
+ * are not moved back off the foundations, a king is not moved from the bottom
+ * of one tableau to an empty one, and only part of a run is moved just when
+ * that lets the card underneath go to a foundation. A card that no other card
+ * could need (an ace or a two, or a card whose opposite-color foundations are
+ * both within one of it) is played to its foundation without considering any
+ * alternatives. As a result, UNSOLVABLE means that no win exists using the
+ * moves the solver considers.
+ * 
+ * @author bhoward
+ */
+public class Solver
+{
+   /**
+    * Construct a solver that gives up after examining the default number of
+    * positions.
+    */
+   public Solver()
+   {
+      this(DEFAULT_MAX_NODES);
+   }
+
+   /**
+    * Construct a solver that gives up after examining the given number of
+    * positions.
+    * 
+    * @param maxNodes
+    */
+   public Solver(long maxNodes)
+   {
+      this(maxNodes, new TranspositionTable(Math.min(maxNodes, TABLE_SIZE)));
+   }
+
+   /**
+    * Construct a solver that gives up after examining the given number of
+    * positions, and records the positions it has seen in the given table,
+    * which may be shared with other solvers.
+    * 
+    * @param maxNodes
+    * @param visited
+    */
+   public Solver(long maxNodes, TranspositionTable visited)
+   {
+      this.maxNodes = maxNodes;
+      this.state = new KlondikeState();
+      this.visited = visited;
+      this.moves = new int[MAX_MOVES * 64];
+      this.start = new int[64];
+      this.count = new int[64];
+      this.next = new int[64];
+      this.path = new int[64];
+      this.legal = new int[MoveGenerator.MAX_MOVES];
+      this.tableauMoves = new int[MAX_MOVES];
+      this.wasteMoves = new int[MAX_MOVES];
+   }
+
+   /**
+    * Play a single game from the given position, which is not modified,
+    * without backtracking: at each step, make the first move (in the order
+    * the search would try them) that leads to a position not seen before.
+    * 
+    * @param position
+    * @param maxMoves
+    *           the most moves to make before giving up
+    * @return SOLVED with the moves played if the game was won; otherwise
+    *         STUCK (or ABORTED, if maxMoves was reached) with the moves
+    *         played before stopping
+    */
+   public Solution play(KlondikeState position, int maxMoves)
+   {
+      Solution solution = playFrom(position, maxMoves);
+      visited.count(lookups - added, added);
+      visited.endSearch(search);
+      return solution;
+   }
+
+   private Solution playFrom(KlondikeState position, int maxMoves)
+   {
+      state.copyFrom(position);
+      search = visited.newSearch();
+      lookups = 0;
+      added = 0;
+      enter(0);
+      long nodes = 0;
+      int depth = 0;
+
+      while (!state.isWon()) {
+         if (depth >= maxMoves) {
+            return playout(Solution.Status.ABORTED, depth, nodes);
+         }
+
+         ensureDepth(depth);
+         int n = generate(0);
+         int applied = 0;
+         for (int i = 0; i < n && applied == 0; i++) {
+            applied = state.apply(moves[i]);
+            nodes++;
+            if (!enter(depth + 1)) {
+               state.undo(applied);
+               applied = 0;
+            }
+         }
+
+         if (applied == 0) {
+            return playout(Solution.Status.STUCK, depth, nodes);
+         }
+         path[depth++] = applied;
+      }
+
+      return playout(Solution.Status.SOLVED, depth, nodes);
+   }
+
+   // Package up the moves on the current path as a Solution
+   private Solution playout(Solution.Status status, int depth, long nodes)
+   {
+      int[] result = new int[depth];
+      for (int i = 0; i < depth; i++) {
+         result[i] = KlondikeMove.withoutReveal(path[i]);
+      }
+      return new Solution(status, result, nodes);
+   }
+
+   /**
+    * Search for a win from the given position, which is not modified.
+    * 
+    * @param position
+    * @return the outcome of the search
+    */
+   public Solution solve(KlondikeState position)
+   {
+      Solution solution = solveFrom(position);
+      visited.count(lookups - added, added);
+      visited.endSearch(search);
+      return solution;
+   }
+
+   private Solution solveFrom(KlondikeState position)
+   {
+      state.copyFrom(position);
+      search = visited.newSearch();
+      lookups = 0;
+      added = 0;
+      long nodes = 0;
+
+      if (state.isWon()) {
+         return new Solution(Solution.Status.SOLVED, new int[0], nodes);
+      }
+
+      enter(0);
+      int depth = 0;
+      start[0] = 0;
+      count[0] = generate(0);
+      next[0] = 0;
+
+      while (true) {
+         if (next[depth] < count[depth]) {
+            int move = moves[start[depth] + next[depth]++];
+            int applied = state.apply(move);
+            nodes++;
+
+            if (!enter(depth + 1)) {
+               state.undo(applied);
+               continue;
+            }
+
+            path[depth++] = applied;
+            if (state.isWon()) {
+               return playout(Solution.Status.SOLVED, depth, nodes);
+            }
+
+            if (nodes >= maxNodes || ((nodes & INTERRUPT_CHECK) == 0
+               && Thread.currentThread().isInterrupted())) {
+               return new Solution(Solution.Status.ABORTED, new int[0],
+                        nodes);
+            }
+
+            ensureDepth(depth);
+            start[depth] = start[depth - 1] + count[depth - 1];
+            ensureMoves(start[depth] + MAX_MOVES);
+            count[depth] = generate(start[depth]);
+            next[depth] = 0;
+         }
+         else if (depth == 0) {
+            return new Solution(Solution.Status.UNSOLVABLE, new int[0], nodes);
+         }
+         else {
+            state.undo(path[--depth]);
+         }
+      }
+   }
+
+   // Record the current position as visited at the given depth; return false
+   // if it already was
+   private boolean enter(int depth)
+   {
+      lookups++;
+      if (visited.addUncounted(state.hash(), search, depth)) {
+         added++;
+         return true;
+      }
+      return false;
+   }
+
+   private void ensureDepth(int depth)
+   {
+      if (depth >= path.length) {
+         int n = path.length * 2;
+         start = Arrays.copyOf(start, n);
+         count = Arrays.copyOf(count, n);
+         next = Arrays.copyOf(next, n);
+         path = Arrays.copyOf(path, n);
+      }
+   }
+
+   private void ensureMoves(int needed)
+   {
+      if (needed > moves.length) {
+         moves = Arrays.copyOf(moves, Math.max(needed, moves.length * 2));
+      }
+   }
+
+   /**
+    * Return true if the card may be played on one of the foundations.
+    */
+   private boolean canFound(int card)
+   {
+      for (int f = KlondikeState.FOUNDATION; f < KlondikeState.PILES; f++) {
+         if (MoveGenerator.canFound(card, state.top(f))) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Fill the moves array, starting at the given offset, with the moves to
+    * try from the current position, best first. Return the number of moves.
+    * The legal moves come from the {@link MoveGenerator}, a pile at a time;
+    * this only leaves out those the search never tries, and puts the rest in
+    * order.
+    */
+   private int generate(int offset)
+   {
+      // Moves to the foundations go straight into the moves array; the
+      // others are gathered here until those are all known
+      int n = offset;
+      int between = 0;
+      int fromWaste = 0;
+
+      // Cards are never moved back off the foundations
+      for (int p = KlondikeState.WASTE; p < KlondikeState.FOUNDATION; p++) {
+         int m = MoveGenerator.generate(state, p, legal);
+         boolean founded = false;
+         boolean triedEmpty = false;
+         for (int i = 0; i < m; i++) {
+            int move = legal[i];
+            int to = KlondikeMove.to(move);
+            if (to >= KlondikeState.FOUNDATION) {
+               // One move to a foundation for each card (an ace may go to
+               // any empty one); a safe one is the only move considered
+               if (founded) {
+                  continue;
+               }
+               if (isSafe(state.top(p))) {
+                  moves[offset] = move;
+                  return 1;
+               }
+               moves[n++] = move;
+               founded = true;
+               continue;
+            }
+
+            // The card left on top of the source, if any
+            int under = state.size(p) - KlondikeMove.count(move) - 1;
+            if (state.size(to) == 0) {
+               // Only try one of the empty tableaus, and only move a king
+               // from a tableau to one if that uncovers a card
+               if (triedEmpty || (p != KlondikeState.WASTE && under < 0)) {
+                  continue;
+               }
+               triedEmpty = true;
+            }
+            else if (p != KlondikeState.WASTE && under >= 0
+               && KlondikeState.isFaceUp(state.card(p, under))
+               && !canFound(state.card(p, under))) {
+               // Only move part of a run if that lets the card underneath go
+               // to a foundation
+               continue;
+            }
+
+            if (p == KlondikeState.WASTE) {
+               wasteMoves[fromWaste++] = move;
+            }
+            else {
+               tableauMoves[between++] = move;
+            }
+         }
+      }
+
+      // Then moves between tableaus, moves from the waste to a tableau, and
+      // turning over the next stock card or recycling the waste
+      System.arraycopy(tableauMoves, 0, moves, n, between);
+      n += between;
+      System.arraycopy(wasteMoves, 0, moves, n, fromWaste);
+      n += fromWaste;
+      if (MoveGenerator.generate(state, KlondikeState.STOCK, legal) > 0) {
+         moves[n++] = legal[0];
+      }
+
+      return n - offset;
+   }
+
+   /**
+    * A card may be played to its foundation without loss if it could never
+    * be needed to hold a card of the opposite color.
+    */
+   private boolean isSafe(int card)
+   {
+      int value = KlondikeState.valueOf(card);
+      if (value <= 2) {
+         return true;
+      }
+
+      boolean red = KlondikeState.isRed(card);
+      for (int suit = 0; suit < 4; suit++) {
+         boolean suitRed = (suit == 1 || suit == 2);
+         if (suitRed != red && state.foundationCount(suit) < value - 1) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private final long maxNodes;
+
+   private final KlondikeState state;
+
+   private final TranspositionTable visited;
+
+   // The number of the current search in the visited table, and the number
+   // of positions looked up and added in it, counted here rather than by
+   // the table to save an atomic update per node
+   private int search;
+   private long lookups;
+   private long added;
+
+   // Arena of generated moves; the moves for depth d occupy
+   // moves[start[d] .. start[d] + count[d]), and next[d] is the next to try
+   private int[] moves;
+   private int[] start;
+   private int[] count;
+   private int[] next;
+
+   // The applied move (with its REVEALED bit) at each depth
+   private int[] path;
+
+   // Scratch space for the legal moves from one pile, and for the moves
+   // between tableaus and from the waste to try from the current position
+   private final int[] legal;
+   private final int[] tableauMoves;
+   private final int[] wasteMoves;
+
+   private static final long DEFAULT_MAX_NODES = 2_000_000;
+
+   // Look for an interrupt once every this many (plus one) nodes
+   private static final long INTERRUPT_CHECK = 0xFFF;
+
+   // Most positions expected in a solver's own table; beyond this, the oldest
+   // and deepest positions are forgotten
+   private static final long TABLE_SIZE = 1 << 20;
+
+   // No position has more than 8 foundation moves, 42 tableau moves, 7
+   // waste moves, and one stock move
+   private static final int MAX_MOVES = 64;
+}
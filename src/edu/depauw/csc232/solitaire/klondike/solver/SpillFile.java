@@ -0,0 +1,323 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             SpillFile.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   https://docs.oracle.com/javase/8/docs/api/java/nio/MappedByteBuffer.html
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A large table of position keys kept in a memory-mapped file, behind the
+ * in-heap entries of a {@link TranspositionTable}. The entries have the same
+ * layout as those of the table (the data word, and the key exclusive-or the
+ * data) and are placed in buckets of four the same way, but the file may hold
+ * many more of them than would fit on the heap. Only the pages in use need to
+ * be in memory; the operating system writes the others back to the file and
+ * reads them in again when they are touched.
+ * <p>
+ * The file starts with a header page giving its capacity and the next search
+ * number, so that the numbers handed out by {@link #newSearch()} are never
+ * reused, even after the file is closed and opened again. Entries made under
+ * {@link TranspositionTable#PERMANENT} are therefore the only ones that a
+ * later run can find. Since the mapping is shared with the file, entries
+ * survive the program being stopped part way through a run; an entry that
+ * was only half written fails its key check and reads as missing.
+ * <p>
+ * Access to each bucket is guarded by one of a small set of locks. The file
+ * is only touched when the in-heap table is full, so the locks are rarely
+ * contended.
+ * 
+ * @author bhoward
+ */
+public class SpillFile implements Closeable
+{
+   private SpillFile(RandomAccessFile file, long capacity, boolean created)
+            throws IOException
+   {
+      this.file = file;
+      FileChannel channel = file.getChannel();
+      this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+      header.order(ByteOrder.LITTLE_ENDIAN);
+
+      int count = (int) ((capacity + SEGMENT_ENTRIES - 1) / SEGMENT_ENTRIES);
+      this.segments = new MappedByteBuffer[count];
+      for (int i = 0; i < count; i++) {
+         long entries = Math.min(SEGMENT_ENTRIES,
+                  capacity - (long) i * SEGMENT_ENTRIES);
+         segments[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                  HEADER + (long) i * SEGMENT_ENTRIES * ENTRY, entries * ENTRY);
+         segments[i].order(ByteOrder.LITTLE_ENDIAN);
+      }
+
+      this.mask = capacity - 1;
+      this.shift = 64 - Long.numberOfTrailingZeros(capacity);
+      this.locks = new Object[LOCKS];
+      for (int i = 0; i < LOCKS; i++) {
+         locks[i] = new Object();
+      }
+
+      if (created) {
+         header.putLong(MAGIC_OFFSET, MAGIC);
+         header.putLong(CAPACITY_OFFSET, capacity);
+         header.putInt(SEARCH_OFFSET, 1);
+         header.putLong(SIZE_OFFSET, 0);
+      }
+      this.size = new AtomicLong(header.getLong(SIZE_OFFSET));
+   }
+
+   /**
+    * Open the spill file with the given name, creating it if it does not
+    * exist. A new file is given room for at least the given number of
+    * entries, up to a maximum of 2^36; an existing file keeps the capacity it
+    * was created with.
+    * 
+    * @param name
+    * @param capacity
+    * @return the open spill file
+    * @throws IOException
+    *            if the file cannot be opened or mapped, or is not a spill
+    *            file
+    */
+   public static SpillFile open(File name, long capacity) throws IOException
+   {
+      RandomAccessFile file = new RandomAccessFile(name, "rw");
+      try {
+         boolean created = file.length() == 0;
+         if (created) {
+            long entries = MIN_CAPACITY;
+            while (entries < capacity && entries < MAX_CAPACITY) {
+               entries *= 2;
+            }
+            capacity = entries;
+            // Extending the file writes nothing, so most file systems leave
+            // the unused part unallocated
+            file.setLength(HEADER + capacity * ENTRY);
+         }
+         else {
+            if (file.length() < HEADER) {
+               throw new IOException(name + " is not a spill file");
+            }
+            file.seek(MAGIC_OFFSET);
+            long magic = Long.reverseBytes(file.readLong());
+            file.seek(CAPACITY_OFFSET);
+            capacity = Long.reverseBytes(file.readLong());
+            if (magic != MAGIC || Long.bitCount(capacity) != 1
+               || file.length() != HEADER + capacity * ENTRY) {
+               throw new IOException(name + " is not a spill file");
+            }
+         }
+         return new SpillFile(file, capacity, created);
+      }
+      catch (IOException e) {
+         file.close();
+         throw e;
+      }
+   }
+
+   /**
+    * @return the number of entries the file can hold
+    */
+   public long capacity()
+   {
+      return mask + 1;
+   }
+
+   /**
+    * Write the header and every changed entry back to the file, and close it.
+    * The mapping itself is only released when it is garbage collected.
+    * 
+    * @throws IOException
+    */
+   @Override
+   public void close() throws IOException
+   {
+      force();
+      file.close();
+   }
+
+   /**
+    * Write the header and every changed entry back to the file.
+    */
+   public void force()
+   {
+      synchronized (header) {
+         header.putLong(SIZE_OFFSET, size.get());
+         header.force();
+      }
+      for (MappedByteBuffer segment : segments) {
+         segment.force();
+      }
+   }
+
+   /**
+    * @return the number of entries in use
+    */
+   public long size()
+   {
+      return size.get();
+   }
+
+   /**
+    * Look up the data word stored with a key for the given search.
+    * 
+    * @param key
+    * @param search
+    * @return the data word, or 0 if the key is not present
+    */
+   long find(long key, int search)
+   {
+      long bucket = bucketOf(key);
+      MappedByteBuffer segment = segmentOf(bucket);
+      int offset = offsetOf(bucket);
+      synchronized (lockOf(bucket)) {
+         for (int i = 0; i < TranspositionTable.BUCKET; i++) {
+            int at = offset + i * ENTRY;
+            long data = segment.getLong(at + ENTRY / 2);
+            if (data == 0) {
+               break;
+            }
+            if ((segment.getLong(at) ^ data) == key
+               && TranspositionTable.searchOf(data) == search) {
+               return data;
+            }
+         }
+      }
+      return 0;
+   }
+
+   /**
+    * @return a search number not yet used with this file, or with any
+    *         earlier opening of it
+    */
+   int newSearch()
+   {
+      synchronized (header) {
+         int search = header.getInt(SEARCH_OFFSET);
+         header.putInt(SEARCH_OFFSET, search + 1);
+         return search;
+      }
+   }
+
+   /**
+    * Store a data word with a key, replacing the key's own entry if it is
+    * present, and otherwise choosing an entry to replace the same way the
+    * in-heap table does. If every entry in the bucket is to be kept, the new
+    * one is dropped.
+    * 
+    * @param key
+    * @param data
+    */
+   void store(long key, long data)
+   {
+      int search = TranspositionTable.searchOf(data);
+      long bucket = bucketOf(key);
+      MappedByteBuffer segment = segmentOf(bucket);
+      int offset = offsetOf(bucket);
+      synchronized (lockOf(bucket)) {
+         int victim = -1;
+         long victimKey = Long.MIN_VALUE;
+         long victimScore = TranspositionTable.KEEP;
+         for (int i = 0; i < TranspositionTable.BUCKET; i++) {
+            int at = offset + i * ENTRY;
+            long old = segment.getLong(at + ENTRY / 2);
+            if (old == 0) {
+               victim = at;
+               size.incrementAndGet();
+               break;
+            }
+            long oldKey = segment.getLong(at) ^ old;
+            if (oldKey == key && TranspositionTable.searchOf(old) == search) {
+               victim = at;
+               break;
+            }
+            long score = TranspositionTable.score(old, search);
+            if (score < victimScore
+               || (score == victimScore && oldKey < victimKey)) {
+               victim = at;
+               victimKey = oldKey;
+               victimScore = score;
+            }
+         }
+         if (victim < 0) {
+            return;
+         }
+
+         // Clear the data first, so that a half-written entry reads as empty
+         segment.putLong(victim + ENTRY / 2, 0);
+         segment.putLong(victim, key ^ data);
+         segment.putLong(victim + ENTRY / 2, data);
+      }
+   }
+
+   // Return the index of the first entry in the bucket for the key, using
+   // the high bits of the key, since the in-heap table uses the low ones
+   private long bucketOf(long key)
+   {
+      return (key >>> shift) & mask & -TranspositionTable.BUCKET;
+   }
+
+   private Object lockOf(long bucket)
+   {
+      return locks[(int) (bucket / TranspositionTable.BUCKET) & (LOCKS - 1)];
+   }
+
+   private int offsetOf(long bucket)
+   {
+      return (int) (bucket % SEGMENT_ENTRIES) * ENTRY;
+   }
+
+   private MappedByteBuffer segmentOf(long bucket)
+   {
+      return segments[(int) (bucket / SEGMENT_ENTRIES)];
+   }
+
+   private final RandomAccessFile file;
+
+   private final MappedByteBuffer header;
+
+   // Each mapping covers at most SEGMENT_ENTRIES entries, since a single
+   // buffer is limited to 2^31 bytes
+   private final MappedByteBuffer[] segments;
+
+   private final long mask;
+
+   private final int shift;
+
+   private final Object[] locks;
+
+   private final AtomicLong size;
+
+   // Bytes in each entry: the key exclusive-or the data, and then the data
+   private static final int ENTRY = 16;
+
+   private static final int HEADER = 4096;
+
+   private static final long SEGMENT_ENTRIES = 1 << 26;
+
+   private static final int LOCKS = 64;
+
+   private static final long MIN_CAPACITY = 1 << 16;
+
+   private static final long MAX_CAPACITY = 1L << 36;
+
+   // "KLONDIKE" in ASCII, marking a spill file
+   private static final long MAGIC = 0x454B49444E4F4C4BL;
+
+   private static final int MAGIC_OFFSET = 0;
+   private static final int CAPACITY_OFFSET = 8;
+   private static final int SEARCH_OFFSET = 16;
+   private static final int SIZE_OFFSET = 24;
+}
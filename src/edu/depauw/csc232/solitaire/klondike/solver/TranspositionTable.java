@@ -0,0 +1,495 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             TranspositionTable.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   https://en.wikipedia.org/wiki/Open_addressing
+//                   https://craftychess.com/hyatt/hashing.html (lockless
+//                   hashing, storing the key exclusive-or the data)
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.klondike.solver;
+
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size table of 64-bit position keys, each with a small result and the
+ * depth at which it was found, that any number of threads may use at once
+ * without locking. Entries live in a primitive long array, two longs each: the
+ * data word (search, depth, and result), and the key exclusive-or the data.
+ * An entry whose two words were not written together therefore fails to
+ * match its key, and reads as missing rather than as wrong data. New entries
+ * are claimed with a compare-and-set on the data word.
+ * <p>
+ * Each search (for example, each deal solved) takes a new search number from
+ * {@link #newSearch()}, and only sees the entries made under that number, so
+ * the table never needs to be cleared. A search that is over gives its number
+ * back with {@link #endSearch(int)}. Keys are placed in small buckets of
+ * neighboring entries; when a bucket is full, a new key replaces an entry from
+ * a finished search if there is one (the oldest first), and otherwise the
+ * entry found deepest in the tree among those of the searches still running,
+ * since entries nearer the root stand for more work. Searches running at once
+ * on several threads thus share the table without one throwing away the
+ * positions of another to make room for its own. Entries made under
+ * {@link #PERMANENT} are never
+ * replaced by those of other searches, but they may fill no more than three of
+ * the four entries of a bucket, so that every bucket has room for the others.
+ * Memory use is fixed when the table is made, however long it is used. The
+ * cost of a full table is only repeated work.
+ * <p>
+ * A table may be given a {@link SpillFile} to catch the entries it would
+ * otherwise lose. An entry of a running search replaced by another key is
+ * written to the file, and a key missing from a bucket full of running
+ * searches' entries is looked for there before it is added, so a long search
+ * keeps all of its positions however small the table is. Entries made under
+ * {@link #PERMANENT} are written to the file as well, so that they outlast
+ * the program.
+ * <p>
+ * Rarely, two threads that add the same key at the same moment may both be
+ * told that it is new; that also costs only repeated work.
+ * 
+ * @author bhoward
+ */
+public class TranspositionTable
+{
+   /**
+    * Construct a table with room for at least twice the given number of
+    * keys, up to a maximum of 2^26 keys.
+    * 
+    * @param expected
+    */
+   public TranspositionTable(long expected)
+   {
+      this(expected, null);
+   }
+
+   /**
+    * Construct a table as in {@link #TranspositionTable(long)}, which writes
+    * the entries it has to replace to the given spill file, and takes its
+    * search numbers from it.
+    * 
+    * @param expected
+    * @param spill
+    *           the file to hold replaced entries, or null for none
+    */
+   public TranspositionTable(long expected, SpillFile spill)
+   {
+      int capacity = MIN_CAPACITY;
+      while (capacity < expected * 2 && capacity < MAX_CAPACITY) {
+         capacity *= 2;
+      }
+      this.entries = new AtomicLongArray(capacity * 2);
+      this.mask = capacity - 1;
+      this.spill = spill;
+      this.nextSearch = new AtomicInteger(1);
+      this.running = new TreeSet<>();
+      this.oldestRunning = Integer.MAX_VALUE;
+      this.hits = new LongAdder();
+      this.misses = new LongAdder();
+      this.collisions = new LongAdder();
+   }
+
+   /**
+    * Add a key to the table for the given search, with the result VISITED,
+    * unless it is already there.
+    * 
+    * @param key
+    * @param search
+    *           a number from {@link #newSearch()}
+    * @param depth
+    *           the depth in the search tree at which the key was found
+    * @return true if the key was not already present for this search
+    */
+   public boolean add(long key, int search, int depth)
+   {
+      boolean added = store(key, search, depth, VISITED, false);
+      count(added ? 0 : 1, added ? 1 : 0);
+      return added;
+   }
+
+   /**
+    * Add a key as in {@link #add(long, int, int)}, but without counting the
+    * hit or miss. A caller making many additions on one thread counts them
+    * itself, and reports the totals with {@link #count(long, long)}, which
+    * saves an atomic update per addition.
+    * 
+    * @param key
+    * @param search
+    * @param depth
+    * @return true if the key was not already present for this search
+    */
+   boolean addUncounted(long key, int search, int depth)
+   {
+      return store(key, search, depth, VISITED, false);
+   }
+
+   /**
+    * @return the number of keys the table can hold
+    */
+   public int capacity()
+   {
+      return mask + 1;
+   }
+
+   /**
+    * @param key
+    * @param search
+    * @return true if the key is present for the given search
+    */
+   public boolean contains(long key, int search)
+   {
+      return get(key, search) != MISSING;
+   }
+
+   /**
+    * Look up the result stored with a key for the given search, in the table
+    * and then in its spill file.
+    * 
+    * @param key
+    * @param search
+    * @return the result, or MISSING if the key is not present
+    */
+   public int get(long key, int search)
+   {
+      int bucket = bucketOf(key);
+      for (int i = bucket; i < bucket + BUCKET; i++) {
+         long data = entries.get(2 * i + 1);
+         if (data == 0) {
+            break;
+         }
+         if ((entries.get(2 * i) ^ data) == key
+            && searchOf(data) == search) {
+            hits.increment();
+            return (int) (data & RESULT_MASK);
+         }
+      }
+      if (spill != null) {
+         long data = spill.find(key, search);
+         if (data != 0) {
+            hits.increment();
+            return (int) (data & RESULT_MASK);
+         }
+      }
+      misses.increment();
+      return MISSING;
+   }
+
+   /**
+    * Add to the hit and miss counts.
+    * 
+    * @param hitCount
+    * @param missCount
+    */
+   void count(long hitCount, long missCount)
+   {
+      hits.add(hitCount);
+      misses.add(missCount);
+   }
+
+   /**
+    * Mark a search as finished, so that its entries give way to those of the
+    * searches still running. Until every older search has finished as well,
+    * its entries are still kept as if it were running.
+    * 
+    * @param search
+    *           a number from {@link #newSearch()}
+    */
+   public void endSearch(int search)
+   {
+      synchronized (running) {
+         running.remove(search);
+         oldestRunning = running.isEmpty() ? Integer.MAX_VALUE
+            : running.first();
+      }
+   }
+
+   /**
+    * @return the number of entries that were overwritten, to make room for a
+    *         different key, while the search that made them was running, or
+    *         that found no room at all
+    */
+   public long getCollisions()
+   {
+      return collisions.sum();
+   }
+
+   /**
+    * @return the number of lookups and additions that found their key
+    */
+   public long getHits()
+   {
+      return hits.sum();
+   }
+
+   /**
+    * @return the number of lookups and additions that did not find their key
+    */
+   public long getMisses()
+   {
+      return misses.sum();
+   }
+
+   /**
+    * Start a new search, which runs until it is given to
+    * {@link #endSearch(int)}.
+    * 
+    * @return a search number not yet used with this table, or with its spill
+    *         file
+    */
+   public int newSearch()
+   {
+      int search = (spill != null) ? spill.newSearch()
+         : nextSearch.getAndIncrement();
+      synchronized (running) {
+         running.add(search);
+         oldestRunning = running.first();
+      }
+      return search;
+   }
+
+   /**
+    * Store a result with a key for the given search, replacing any result
+    * already there.
+    * 
+    * @param key
+    * @param search
+    *           a number from {@link #newSearch()}
+    * @param depth
+    *           the depth in the search tree at which the key was found
+    * @param result
+    *           a number from 0 to 65535
+    */
+   public void put(long key, int search, int depth, int result)
+   {
+      boolean added = store(key, search, depth, result, true);
+      count(added ? 0 : 1, added ? 1 : 0);
+      if (search == PERMANENT && spill != null) {
+         spill.store(key, dataOf(search, depth, result));
+      }
+   }
+
+   /**
+    * Return how willing a bucket should be to give up an entry to a key of
+    * the given search: the lower the score, the sooner it goes. Entries of
+    * other searches go first, oldest first, then the deepest entries of the
+    * same search. PERMANENT entries score {@link #KEEP}, and so are never
+    * given up, except to each other.
+    * 
+    * @param old
+    *           the data word of the entry
+    * @param search
+    * @return the score
+    */
+   static long score(long old, int search)
+   {
+      return score(old, search, Integer.MAX_VALUE);
+   }
+
+   // As score(long, int), but the entries of searches that may still be
+   // running, numbered oldestRunning or later, count as the search's own
+   private static long score(long old, int search, int oldestRunning)
+   {
+      if (isRunning(searchOf(old), search, oldestRunning)) {
+         return DEPTH_MASK - ((old >>> 16) & DEPTH_MASK);
+      }
+      if (searchOf(old) == PERMANENT) {
+         return KEEP;
+      }
+      return (old >>> 32) - (1L << 33);
+   }
+
+   // Return true if an entry made by the owner belongs to the given search,
+   // or to a search that may still be running
+   private static boolean isRunning(int owner, int search, int oldestRunning)
+   {
+      return owner == search || owner >= oldestRunning;
+   }
+
+   static int searchOf(long data)
+   {
+      return (int) (data >>> 32);
+   }
+
+   // Return the index of the first entry in the bucket for the key
+   private int bucketOf(long key)
+   {
+      return (int) (key ^ (key >>> 32)) & mask & -BUCKET;
+   }
+
+   // Store the key's entry, unless it is already present and replace is
+   // false; return true if the key was not already present
+   private boolean store(long key, int search, int depth, int result,
+            boolean replace)
+   {
+      long data = dataOf(search, depth, result);
+      int bucket = bucketOf(key);
+      int oldest = oldestRunning;
+
+      while (true) {
+         // Find the key's own entry, or else the entry most worth replacing
+         int keySlot = -1;
+         long keyData = 0;
+         int victim = -1;
+         long victimData = 0;
+         long victimKey = Long.MIN_VALUE;
+         long victimScore = KEEP;
+         int permanents = 0;
+         int permanentVictim = -1;
+         long permanentData = 0;
+         long permanentKey = Long.MIN_VALUE;
+         for (int i = bucket; i < bucket + BUCKET; i++) {
+            long old = entries.get(2 * i + 1);
+            if (old == 0) {
+               // Entries are never removed, so the rest of the bucket is
+               // empty too
+               victim = i;
+               victimData = 0;
+               break;
+            }
+
+            long oldKey = entries.get(2 * i) ^ old;
+            long score = score(old, search, oldest);
+            // The key's entry from another running search is not this
+            // search's to replace
+            if (oldKey == key
+               && (searchOf(old) == search || score < 0)) {
+               if (searchOf(old) == search && !replace) {
+                  return false;
+               }
+               keySlot = i;
+               keyData = old;
+            }
+
+            // Ties go by key rather than by place in the bucket, so that the
+            // entries a search keeps do not depend on what earlier searches
+            // left behind
+            if (score < victimScore
+               || (score == victimScore && oldKey < victimKey)) {
+               victim = i;
+               victimData = old;
+               victimKey = oldKey;
+               victimScore = score;
+            }
+
+            if (searchOf(old) == PERMANENT) {
+               permanents++;
+               if (permanentVictim < 0 || oldKey < permanentKey) {
+                  permanentVictim = i;
+                  permanentData = old;
+                  permanentKey = oldKey;
+               }
+            }
+         }
+
+         boolean found = keySlot >= 0 && searchOf(keyData) == search;
+         if (keySlot >= 0) {
+            victim = keySlot;
+            victimData = keyData;
+            victimKey = key;
+         }
+         else if (search == PERMANENT && permanents >= BUCKET - 1
+            && searchOf(victimData) != PERMANENT) {
+            // The last slot of each bucket is kept for other searches, so a
+            // new PERMANENT entry replaces one of the others instead
+            victim = permanentVictim;
+            victimData = permanentData;
+            victimKey = permanentKey;
+         }
+         if (victim < 0) {
+            // Only two PERMANENT entries racing for a bucket's last slots
+            // can fill it with them; the new entry is lost, or left to the
+            // spill file
+            collisions.increment();
+            if (spill != null) {
+               spill.store(key, data);
+            }
+            return true;
+         }
+
+         // A bucket full of running searches' entries may have sent the key
+         // to the spill file
+         boolean full = keySlot < 0 && victimData != 0
+            && isRunning(searchOf(victimData), search, oldest);
+         if (full && spill != null && !replace
+            && spill.find(key, search) != 0) {
+            return false;
+         }
+
+         if (entries.compareAndSet(2 * victim + 1, victimData, data)) {
+            // Readers that see the new data before the new key just miss,
+            // so the key needs no fence of its own
+            entries.lazySet(2 * victim, key ^ data);
+            if (full) {
+               collisions.increment();
+               if (spill != null) {
+                  spill.store(victimKey, victimData);
+               }
+            }
+            return !found;
+         }
+         // Another thread changed the entry first; look again
+      }
+   }
+
+   private static long dataOf(int search, int depth, int result)
+   {
+      return ((long) search << 32) | (Math.min(depth, DEPTH_MASK) << 16)
+         | (result & RESULT_MASK);
+   }
+
+   // Two longs per entry: the key exclusive-or the data, and then the data
+   private final AtomicLongArray entries;
+
+   private final int mask;
+
+   private final SpillFile spill;
+
+   private final AtomicInteger nextSearch;
+
+   // The searches begun and not yet ended, guarded by itself
+   private final TreeSet<Integer> running;
+
+   private volatile int oldestRunning;
+
+   private final LongAdder hits;
+   private final LongAdder misses;
+   private final LongAdder collisions;
+
+   /**
+    * The result of {@link #get(long, int)} for a key that is not present.
+    */
+   public static final int MISSING = -1;
+
+   /**
+    * The result stored by {@link #add(long, int, int)}.
+    */
+   public static final int VISITED = 0;
+
+   /**
+    * A search number, never returned by {@link #newSearch()}, for entries
+    * meant to be kept: they are replaced only by each other, and are written
+    * through to the spill file, where a later run may find them. They never
+    * take the last entry of a bucket that is not already theirs, so other
+    * searches always have room.
+    */
+   public static final int PERMANENT = -1;
+
+   // The score of an entry that may not be given up to the search at hand
+   static final long KEEP = Long.MAX_VALUE;
+
+   // Entries in each bucket; four entries of two longs fill a cache line
+   static final int BUCKET = 4;
+
+   private static final long DEPTH_MASK = 0xFFFF;
+
+   private static final long RESULT_MASK = 0xFFFF;
+
+   private static final int MIN_CAPACITY = 1 << 10;
+
+   private static final int MAX_CAPACITY = 1 << 26;
+}
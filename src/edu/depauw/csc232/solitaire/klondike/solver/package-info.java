@@ -0,0 +1,55 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             package-info.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * This package contains a headless solver for single-card-draw Klondike, which
+ * does not depend on any of the Swing user interface.
+ * <ul>
+ * <li>{@link edu.depauw.csc232.solitaire.klondike.solver.KlondikeState
+ * KlondikeState} is a compact encoding of a position: one byte per card, with
+ * a bit recording whether the card is face-up, all in a single array. It may
+ * be created from the piles of a running
+ * {@link edu.depauw.csc232.solitaire.klondike.KlondikeGame KlondikeGame}.</li>
+ * <li>{@link edu.depauw.csc232.solitaire.klondike.solver.KlondikeMove
+ * KlondikeMove} packs a move (source, target, number of cards, and kind) into
+ * a single int.</li>
+ * <li>{@link edu.depauw.csc232.solitaire.klondike.solver.MoveGenerator
+ * MoveGenerator} lists the legal moves in any
+ * {@link edu.depauw.csc232.solitaire.klondike.solver.KlondikePosition
+ * KlondikePosition}, whether a KlondikeState or a game in progress, reading
+ * the cards without changing them and writing the moves into an array
+ * supplied by the caller.</li>
+ * <li>{@link edu.depauw.csc232.solitaire.klondike.solver.Solver Solver} runs a
+ * depth-first search over a KlondikeState, using a
+ * {@link edu.depauw.csc232.solitaire.klondike.solver.TranspositionTable
+ * TranspositionTable} of position keys to avoid repeating work, and reports a
+ * {@link edu.depauw.csc232.solitaire.klondike.solver.Solution Solution}
+ * holding the winning sequence of moves, if one was found. The table has a
+ * fixed size and may be shared, without locking, by solvers on several
+ * threads, such as those of the
+ * {@link edu.depauw.csc232.solitaire.klondike.solver.DealSimulator
+ * DealSimulator}; a running search keeps its positions ahead of those left
+ * by searches already finished. A
+ * {@link edu.depauw.csc232.solitaire.klondike.solver.SpillFile SpillFile}
+ * behind the table holds the positions it has no room for in a
+ * memory-mapped file, along with entries meant to outlast the program, such
+ * as the outcomes of deals already simulated.</li>
+ * <li>{@link edu.depauw.csc232.solitaire.klondike.solver.CorpusWriter
+ * CorpusWriter} stores any number of
+ * {@link edu.depauw.csc232.solitaire.klondike.solver.GameRecord GameRecords}
+ * (deal number, moves, outcome, and time) in one file, in blocks compressed a
+ * column at a time, and
+ * {@link edu.depauw.csc232.solitaire.klondike.solver.CorpusReader
+ * CorpusReader} streams them back, skipping the blocks that hold no games
+ * with the wanted outcomes, and the moves of the other outcomes in the
+ * rest.</li>
+ * </ul>
+ */
+package edu.depauw.csc232.solitaire.klondike.solver;
@@ -0,0 +1,88 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             Shuffle.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   https://en.wikipedia.org/wiki/Fisher%E2%80%93Yates_shuffle
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reproducible shuffling for numbered deals. Each deal number selects its own
+ * SplittableRandom stream, so deal #123456 comes out the same no matter which
+ * thread (or machine) deals it, or how many other deals come before it. Both
+ * the cards of a pile and the deck of a solver's state are arrays of card
+ * codes, shuffled by {@link #shuffle(byte[], int, SplittableRandom)}, so a game
+ * and a solver dealing the same number start from the same order.
+ * 
+ * @author bhoward
+ */
+public final class Shuffle
+{
+   private Shuffle()
+   {
+   }
+
+   /**
+    * Return a new random stream for the given deal number.
+    * 
+    * @param dealNumber
+    * @return the stream that shuffles that deal
+    */
+   public static SplittableRandom forDeal(long dealNumber)
+   {
+      // Spread consecutive deal numbers apart before seeding (SplitMix64)
+      long z = dealNumber * 0x9E3779B97F4A7C15L;
+      z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+      z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+      return new SplittableRandom(z ^ (z >>> 31));
+   }
+
+   /**
+    * @return a deal number chosen at random, from 1 to MAX_DEAL
+    */
+   public static long randomDealNumber()
+   {
+      return ThreadLocalRandom.current().nextLong(MAX_DEAL) + 1;
+   }
+
+   /**
+    * Shuffle the array in place.
+    * 
+    * @param array
+    * @param random
+    */
+   public static void shuffle(byte[] array, SplittableRandom random)
+   {
+      shuffle(array, array.length, random);
+   }
+
+   /**
+    * Shuffle the first length entries of the array in place.
+    * 
+    * @param array
+    * @param length
+    * @param random
+    */
+   public static void shuffle(byte[] array, int length,
+            SplittableRandom random)
+   {
+      for (int i = length; i > 1; i--) {
+         int j = random.nextInt(i);
+         byte temp = array[i - 1];
+         array[i - 1] = array[j];
+         array[j] = temp;
+      }
+   }
+
+   /**
+    * The largest deal number handed out by {@link #randomDealNumber()}.
+    */
+   public static final long MAX_DEAL = 1_000_000_000L;
+}
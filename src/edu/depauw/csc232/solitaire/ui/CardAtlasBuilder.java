@@ -0,0 +1,114 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             CardAtlasBuilder.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.ui;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Build a card atlas for {@link CardImages} out of a directory holding one
+ * image file per card. The atlas is a single image with the cards laid out in
+ * a grid, named "atlas" plus the suffix, together with an index named
+ * "atlas.txt" that gives the name, position, size, and opacity of each card
+ * in the atlas. Both are written to the same directory as the cards.
+ * 
+ * @author bhoward
+ */
+public class CardAtlasBuilder
+{
+   private CardAtlasBuilder()
+   {
+   }
+
+   /**
+    * Build the atlas for the card images in the given directory.
+    * 
+    * @param directory
+    *           the directory holding the card images
+    * @param suffix
+    *           the suffix of each image file, such as ".png"
+    * @throws IOException
+    *            if a card image is missing or a file cannot be written
+    */
+   public static void build(File directory, String suffix) throws IOException
+   {
+      List<BufferedImage> cards = new ArrayList<>();
+      int cellWidth = 0;
+      int cellHeight = 0;
+      for (String name : CardImages.NAMES) {
+         File file = new File(directory, name + suffix);
+         BufferedImage card = ImageIO.read(file);
+         if (card == null) {
+            throw new IOException("Cannot read card image " + file);
+         }
+         cards.add(card);
+         cellWidth = Math.max(cellWidth, card.getWidth());
+         cellHeight = Math.max(cellHeight, card.getHeight());
+      }
+
+      int rows = (cards.size() + COLUMNS - 1) / COLUMNS;
+      BufferedImage sheet = new BufferedImage(cellWidth * COLUMNS,
+               cellHeight * rows, BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g = sheet.createGraphics();
+      File indexFile = new File(directory, CardImages.ATLAS_INDEX);
+      try (PrintWriter index = new PrintWriter(indexFile,
+               StandardCharsets.UTF_8.name())) {
+         index.println("# Card atlas for " + CardImages.ATLAS_NAME + suffix
+            + ", written by CardAtlasBuilder");
+         index.println("# name x y width height opaque");
+         for (int i = 0; i < cards.size(); i++) {
+            BufferedImage card = cards.get(i);
+            int x = (i % COLUMNS) * cellWidth;
+            int y = (i / COLUMNS) * cellHeight;
+            g.drawImage(card, x, y, null);
+            boolean opaque = card.getTransparency() == Transparency.OPAQUE;
+            index.println(CardImages.NAMES.get(i) + " " + x + " " + y + " "
+               + card.getWidth() + " " + card.getHeight() + " " + opaque);
+         }
+      }
+      g.dispose();
+
+      File sheetFile = new File(directory, CardImages.ATLAS_NAME + suffix);
+      if (!ImageIO.write(sheet, suffix.substring(1), sheetFile)) {
+         throw new IOException("No image writer for " + suffix);
+      }
+   }
+
+   /**
+    * Build an atlas from the command line. The optional arguments are the
+    * directory holding the card images (default resources/cards) and their
+    * suffix (default .png).
+    * 
+    * @param args
+    * @throws IOException
+    */
+   public static void main(String[] args) throws IOException
+   {
+      File directory = new File((args.length > 0) ? args[0]
+         : "resources/cards");
+      String suffix = (args.length > 1) ? args[1] : ".png";
+      build(directory, suffix);
+      System.out.println("Wrote " + CardImages.ATLAS_NAME + suffix + " and "
+         + CardImages.ATLAS_INDEX + " to " + directory);
+   }
+
+   // Number of cards in each row of the atlas
+   private static final int COLUMNS = 8;
+}
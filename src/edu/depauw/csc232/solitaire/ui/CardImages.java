@@ -10,34 +10,257 @@
 
 package edu.depauw.csc232.solitaire.ui;
 
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
 import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.imageio.ImageIO;
 
+import edu.depauw.csc232.solitaire.core.Card;
+
 /**
  * Manage a set of playing card images loaded from a directory of image files.
+ * The images come either from a single sprite sheet (an "atlas") holding every
+ * card, if the directory has one, or else from one file per card. Either way,
+ * the images are decoded the first time they are needed (or ahead of time, by
+ * {@link #preload()}), and converted to a format that is fast to draw on the
+ * screen. Games should share a single instance for each set of images, by way
+ * of {@link #getShared(String, String)}, so that the images are decoded and
+ * stored only once no matter how many games are open.
  * 
  * @author bhoward
  */
 public class CardImages
 {
    /**
-    * Load a set of card images from resources relative to the class loader.
-    * Each resource name is composed of a resourcePrefix, a main part, and a
-    * suffix. The main part of each name will be either a card abbreviation,
-    * such as "AC", "2C", ..., or one of the special names "blank", "back",
-    * "back2", "joker", or "joker2". The resourcePrefix might be something like
-    * "/cards/", while the suffix will be something like ".png".
+    * Prepare to load a set of card images from resources relative to the
+    * class loader. Each resource name is composed of a resourcePrefix, a main
+    * part, and a suffix. The main part of each name will be either a card
+    * abbreviation, such as "AC", "2C", ..., or one of the special names
+    * "blank", "back", "back2", "joker", or "joker2". The resourcePrefix might
+    * be something like "/cards/", while the suffix will be something like
+    * ".png".
+    * <p>
+    * If there is a resource named resourcePrefix + "atlas.txt", it is taken
+    * to be the index of an atlas image named resourcePrefix + "atlas" +
+    * suffix, as written by {@link CardAtlasBuilder}, and the individual files
+    * are not used.
     * 
     * @param resourcePrefix
     * @param suffix
     */
    public CardImages(String resourcePrefix, String suffix)
+   {
+      this.resourcePrefix = resourcePrefix;
+      this.suffix = suffix;
+      this.images = new ConcurrentHashMap<>();
+      this.hasAtlas = CardImages.class
+               .getResource(resourcePrefix + ATLAS_INDEX) != null;
+   }
+
+   /**
+    * Draw the image for the given playing card with its upper-left corner at
+    * the given point. When the images come from an atlas, this copies the
+    * card's region of the atlas directly, without a separate Image for the
+    * card.
+    * 
+    * @param g
+    * @param card
+    *           the playing card, or null for a blank card
+    * @param x
+    * @param y
+    */
+   public void drawCard(Graphics g, Card card, int x, int y)
+   {
+      String name = nameOf(card);
+      if (hasAtlas) {
+         getAtlas().draw(g, name, x, y);
+      }
+      else {
+         g.drawImage(getImage(name), x, y, null);
+      }
+   }
+
+   /**
+    * @param card
+    *           the playing card, or null for a blank card
+    * @return the height of the card's image
+    */
+   public int getHeight(Card card)
+   {
+      String name = nameOf(card);
+      if (hasAtlas) {
+         return getAtlas().getCell(name).height;
+      }
+      return getImage(name).getHeight(null);
+   }
+
+   /**
+    * Retrieve the appropriate image for the given playing card. Uses the
+    * {@link Card#getAbbrev()} method to select a face-up card. If the specified
+    * card is null, returns a blank card image.
+    * 
+    * @param card
+    *           the desired playing card, or null
+    * @return the appropriate Image
+    */
+   public Image getImage(Card card)
+   {
+      return getImage(nameOf(card));
+   }
+
+   // Return the named image, decoding it if this is the first request; if
+   // another thread is already decoding it, wait for that instead. With an
+   // atlas, the image is a view sharing the atlas pixels.
+   private Image getImage(String name)
+   {
+      Image image = images.get(name);
+      if (image == null) {
+         image = images.computeIfAbsent(name,
+                  hasAtlas ? n -> getAtlas().getView(n) : this::load);
+      }
+      return image;
+   }
+
+   /**
+    * @param card
+    *           the playing card, or null for a blank card
+    * @return the width of the card's image
+    */
+   public int getWidth(Card card)
+   {
+      String name = nameOf(card);
+      if (hasAtlas) {
+         return getAtlas().getCell(name).width;
+      }
+      return getImage(name).getWidth(null);
+   }
+
+   // Return the atlas, decoding it on the first request
+   private Atlas getAtlas()
+   {
+      Atlas result = atlas;
+      if (result == null) {
+         synchronized (this) {
+            result = atlas;
+            if (result == null) {
+               result = loadAtlas();
+               atlas = result;
+            }
+         }
+      }
+      return result;
+   }
+
+   // Read the named image and convert it for drawing
+   private Image load(String name)
+   {
+      try {
+         return toCompatible(read(resourcePrefix + name + suffix));
+      }
+      catch (IOException e) {
+         e.printStackTrace();
+         System.exit(1);
+         return null;
+      }
+   }
+
+   // Read the atlas index and image
+   private Atlas loadAtlas()
+   {
+      String indexName = resourcePrefix + ATLAS_INDEX;
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+               CardImages.class.getResourceAsStream(indexName),
+               StandardCharsets.UTF_8))) {
+         Map<String, Cell> cells = new HashMap<>();
+         String line;
+         while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+               continue;
+            }
+
+            String[] fields = line.split("\\s+");
+            if (fields.length != 6) {
+               throw new IOException("Bad line in " + indexName + ": " + line);
+            }
+            cells.put(fields[0],
+                     new Cell(Integer.parseInt(fields[1]),
+                              Integer.parseInt(fields[2]),
+                              Integer.parseInt(fields[3]),
+                              Integer.parseInt(fields[4]),
+                              Boolean.parseBoolean(fields[5])));
+         }
+
+         for (String name : NAMES) {
+            if (!cells.containsKey(name)) {
+               throw new IOException("No " + name + " in " + indexName);
+            }
+         }
+
+         BufferedImage sheet = read(resourcePrefix + ATLAS_NAME + suffix);
+         return new Atlas(sheet, cells);
+      }
+      catch (IOException | NumberFormatException e) {
+         e.printStackTrace();
+         System.exit(1);
+         return null;
+      }
+   }
+
+   /**
+    * Start decoding all of the images on background threads, so that they are
+    * ready by the time the first table is drawn. Images requested before they
+    * have been decoded are still decoded on demand.
+    * 
+    * @return a future that completes once every image has been decoded
+    */
+   public CompletableFuture<Void> preload()
+   {
+      if (hasAtlas) {
+         return CompletableFuture.runAsync(this::getAtlas);
+      }
+
+      List<CompletableFuture<Image>> loads = new ArrayList<>();
+      for (String name : NAMES) {
+         loads.add(CompletableFuture.supplyAsync(() -> getImage(name)));
+      }
+      return CompletableFuture
+               .allOf(loads.toArray(new CompletableFuture<?>[0]));
+   }
+
+   /**
+    * Return the instance shared by every game for the given resource names,
+    * creating it (without decoding any images yet) on the first request.
+    * 
+    * @param resourcePrefix
+    * @param suffix
+    * @return the shared set of card images
+    */
+   public static CardImages getShared(String resourcePrefix, String suffix)
+   {
+      return SHARED.computeIfAbsent(resourcePrefix + '\0' + suffix,
+               key -> new CardImages(resourcePrefix, suffix));
+   }
+
+   // List the main part of the name of every image in a set
+   private static List<String> makeNames()
    {
       List<String> names = new ArrayList<String>();
       names.add("blank");
@@ -54,43 +277,189 @@ public class CardImages
             names.add("" + rank + suit);
          }
       }
+      return Collections.unmodifiableList(names);
+   }
 
-      images = new HashMap<String, Image>();
-      try {
-         for (String name : names) {
-            String resourceName = resourcePrefix + name + suffix;
-            Image image = ImageIO.read(
-                     CardImages.class.getResource(resourceName));
-            images.put(name, image);
-         }
+   // Return the main part of the name of the image to show for the card
+   private static String nameOf(Card card)
+   {
+      if (card == null) {
+         return "blank";
       }
-      catch (IOException e) {
-         e.printStackTrace();
-         System.exit(1);
+      else if (card.isFaceUp()) {
+         return card.getAbbrev();
+      }
+      else {
+         return "back";
       }
    }
 
-   /**
-    * Retrieve the appropriate image for the given playing card. Uses the
-    * {@link Card#getAbbrev()} method to select a face-up card. If the specified
-    * card is null, returns a blank card image.
-    * 
-    * @param card
-    *           the desired playing card, or null
-    * @return the appropriate Image
-    */
-   public Image getImage(Card card)
+   // Return the configuration of the default screen
+   private static GraphicsConfiguration getScreenConfig()
    {
-      if (card == null) {
-         return images.get("blank");
+      return GraphicsEnvironment.getLocalGraphicsEnvironment()
+               .getDefaultScreenDevice().getDefaultConfiguration();
+   }
+
+   // Decode the image resource with the given name
+   private static BufferedImage read(String resourceName) throws IOException
+   {
+      URL resource = CardImages.class.getResource(resourceName);
+      if (resource == null) {
+         throw new IOException("Missing card image " + resourceName);
       }
-      else if (card.isFaceUp()) {
-         return images.get(card.getAbbrev());
+      return ImageIO.read(resource);
+   }
+
+   // Copy the image into one laid out the way the screen wants it, so that
+   // drawing it is a plain copy rather than a conversion
+   private static BufferedImage toCompatible(BufferedImage image)
+   {
+      return toCompatible(image, image.getTransparency());
+   }
+
+   // Copy the image into a compatible one with the given transparency; an
+   // opaque copy of a translucent image has its alpha thrown away. An image
+   // already in the right form is returned as it is.
+   private static BufferedImage toCompatible(BufferedImage image,
+            int transparency)
+   {
+      if (!GraphicsEnvironment.isHeadless()
+         && transparency == image.getTransparency()
+         && image.getColorModel().equals(getScreenConfig().getColorModel())) {
+         return image;
+      }
+      return copyCompatible(image, transparency);
+   }
+
+   // Copy the image as toCompatible does, but always into a new image, which
+   // shares no pixels with the original
+   private static BufferedImage copyCompatible(BufferedImage image,
+            int transparency)
+   {
+      int width = image.getWidth();
+      int height = image.getHeight();
+      BufferedImage result;
+      if (GraphicsEnvironment.isHeadless()) {
+         // No screen to ask, so use the plainest int-per-pixel layout
+         result = new BufferedImage(width, height,
+                  (transparency == Transparency.OPAQUE)
+                     ? BufferedImage.TYPE_INT_RGB
+                     : BufferedImage.TYPE_INT_ARGB);
       }
       else {
-         return images.get("back");
+         result = getScreenConfig().createCompatibleImage(width, height,
+                  transparency);
       }
+
+      Graphics2D g = result.createGraphics();
+      g.drawImage(image, 0, 0, null);
+      g.dispose();
+      return result;
    }
 
+   private final String resourcePrefix;
+
+   private final String suffix;
+
+   private final boolean hasAtlas;
+
+   private volatile Atlas atlas;
+
    private final Map<String, Image> images;
+
+   /**
+    * The main part of the name of every image in a set.
+    */
+   static final List<String> NAMES = makeNames();
+
+   /**
+    * The main part of the name of the atlas image.
+    */
+   static final String ATLAS_NAME = "atlas";
+
+   /**
+    * The full name of the atlas index, relative to the resource prefix.
+    */
+   static final String ATLAS_INDEX = "atlas.txt";
+
+   private static final Map<String, CardImages> SHARED =
+      new ConcurrentHashMap<>();
+
+   // The region of the atlas holding one card
+   private static final class Cell
+   {
+      Cell(int x, int y, int width, int height, boolean opaque)
+      {
+         this.x = x;
+         this.y = y;
+         this.width = width;
+         this.height = height;
+         this.opaque = opaque;
+      }
+
+      final int x;
+      final int y;
+      final int width;
+      final int height;
+      final boolean opaque;
+   }
+
+   // A decoded atlas. Opaque cards are drawn from an opaque copy of the
+   // sheet, since copying pixels with no alpha is several times faster than
+   // blending. The few translucent cards (just the blank one, in the usual
+   // set) each get a small translucent copy of their own instead of a second
+   // copy of the whole sheet.
+   private static final class Atlas
+   {
+      Atlas(BufferedImage decoded, Map<String, Cell> cells)
+      {
+         this.sheet = toCompatible(decoded, Transparency.OPAQUE);
+         this.cells = cells;
+         this.translucent = new HashMap<>();
+         for (Map.Entry<String, Cell> entry : cells.entrySet()) {
+            Cell cell = entry.getValue();
+            if (!cell.opaque) {
+               translucent.put(entry.getKey(),
+                        copyCompatible(decoded.getSubimage(cell.x, cell.y,
+                                 cell.width, cell.height),
+                                 Transparency.TRANSLUCENT));
+            }
+         }
+      }
+
+      void draw(Graphics g, String name, int x, int y)
+      {
+         Cell cell = getCell(name);
+         if (cell.opaque) {
+            g.drawImage(sheet, x, y, x + cell.width, y + cell.height, cell.x,
+                     cell.y, cell.x + cell.width, cell.y + cell.height, null);
+         }
+         else {
+            g.drawImage(translucent.get(name), x, y, null);
+         }
+      }
+
+      Cell getCell(String name)
+      {
+         return cells.get(name);
+      }
+
+      Image getView(String name)
+      {
+         Cell cell = getCell(name);
+         if (cell.opaque) {
+            return sheet.getSubimage(cell.x, cell.y, cell.width, cell.height);
+         }
+         return translucent.get(name);
+      }
+
+      // The whole sheet, without its alpha
+      private final BufferedImage sheet;
+
+      private final Map<String, Cell> cells;
+
+      // A copy of each translucent card, with its alpha
+      private final Map<String, BufferedImage> translucent;
+   }
 }
@@ -10,11 +10,15 @@
 
 package edu.depauw.csc232.solitaire.ui;
 
+import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.function.Consumer;
 
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
+import javax.swing.JSlider;
 import javax.swing.SwingUtilities;
 
 public class GameFrame extends JFrame
@@ -31,15 +35,37 @@ public class GameFrame extends JFrame
    public GameFrame(String title, int width, int height, Consumer<Table> layout)
    {
       super(title);
-      setSize(width, height);
       setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
       this.layout = layout;
 
-      CardImages images = new CardImages("/cards/", ".png");
+      CardImages images = CardImages.getShared("/cards/", ".png");
       table = new Table(images);
       table.setBackground(DARK_GREEN);
-      add(table);
+      add(table, BorderLayout.CENTER);
+
+      // The timeline slider jumps to any point in the undo/redo history
+      timeline = new JSlider(0, 0, 0);
+      timeline.setToolTipText("Drag to undo or redo moves");
+      timeline.setFocusable(false);
+      timeline.addChangeListener(event -> {
+         if (!updatingTimeline) {
+            table.seekHistory(timeline.getValue());
+         }
+      });
+      table.addHistoryListener(event -> updateTimeline());
+      add(timeline, BorderLayout.SOUTH);
+      setSize(width, height + timeline.getPreferredSize().height);
+
+      // Everything in the journal is already on disk; just release the file
+      addWindowListener(new WindowAdapter()
+      {
+         @Override
+         public void windowClosed(WindowEvent e)
+         {
+            table.closeJournal();
+         }
+      });
    }
 
    /**
@@ -64,8 +90,23 @@ public class GameFrame extends JFrame
       });
    }
 
+   // Make the timeline slider show the table's current history
+   private void updateTimeline()
+   {
+      updatingTimeline = true;
+      timeline.setMaximum(table.getHistoryLength());
+      timeline.setValue(table.getHistoryPosition());
+      updatingTimeline = false;
+   }
+
    private final Table table;
 
+   private final JSlider timeline;
+
+   // True while the slider is being changed to match the table, rather than
+   // by the user
+   private boolean updatingTimeline;
+
    private final Consumer<Table> layout;
 
    private static final Color DARK_GREEN = new Color(0, 128, 0);
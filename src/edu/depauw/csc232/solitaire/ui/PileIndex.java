@@ -0,0 +1,235 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             PileIndex.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.ui;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A uniform grid over the table, recording which piles cover each cell, so
+ * that the pile under the mouse can be found by looking at the few piles in a
+ * single cell instead of at every pile on the table. Within a cell, the piles
+ * are kept in z-order (back to front). Each pile is represented by its
+ * StackImage, and the bounds recorded for it are the area of its most recently
+ * painted image, at its current position; the Table keeps them up to date by
+ * listening for changes to the image's bounds.
+ * 
+ * @author bhoward
+ */
+final class PileIndex
+{
+   /**
+    * Construct an empty index.
+    */
+   PileIndex()
+   {
+      this.entries = new IdentityHashMap<>();
+      this.columns = 0;
+      this.rows = 0;
+      this.cells = newCells(0);
+   }
+
+   /**
+    * Add the given pile on top of (in z-order) all of the piles in the index.
+    * 
+    * @param pile
+    */
+   void add(StackImage pile)
+   {
+      Entry entry = new Entry(nextOrder++);
+      entries.put(pile, entry);
+      update(pile);
+   }
+
+   /**
+    * Find the top-most pile whose image contains the given point.
+    * 
+    * @param x
+    * @param y
+    * @return the pile, or null if there is none
+    */
+   StackImage find(int x, int y)
+   {
+      int column = cellOf(x);
+      int row = cellOf(y);
+      if (column >= columns || row >= rows) {
+         return null;
+      }
+
+      List<StackImage> cell = cells[row * columns + column];
+      if (cell != null) {
+         for (int i = cell.size() - 1; i >= 0; i--) {
+            StackImage pile = cell.get(i);
+            if (pile.contains(x, y)) {
+               return pile;
+            }
+         }
+      }
+
+      return null;
+   }
+
+   /**
+    * Remove the given pile from the index.
+    * 
+    * @param pile
+    */
+   void remove(StackImage pile)
+   {
+      Entry entry = entries.remove(pile);
+      if (entry != null && entry.bounds != null) {
+         removeCells(pile, entry.bounds);
+      }
+   }
+
+   /**
+    * Record the current bounds of the given pile, if it is in the index.
+    * 
+    * @param pile
+    */
+   void update(StackImage pile)
+   {
+      Entry entry = entries.get(pile);
+      if (entry == null) {
+         return;
+      }
+
+      Rectangle bounds = pile.getPaintedBounds();
+      if (Objects.equals(bounds, entry.bounds)) {
+         return;
+      }
+
+      if (entry.bounds != null) {
+         removeCells(pile, entry.bounds);
+      }
+      entry.bounds = bounds;
+      if (bounds != null) {
+         addCells(pile, entry);
+      }
+   }
+
+   // Add the pile to each cell that its bounds cover, keeping every cell in
+   // z-order
+   private void addCells(StackImage pile, Entry entry)
+   {
+      Rectangle bounds = entry.bounds;
+      int lastColumn = cellOf(bounds.x + bounds.width - 1);
+      int lastRow = cellOf(bounds.y + bounds.height - 1);
+      if (lastColumn >= columns || lastRow >= rows) {
+         // this puts every pile, including this one, into the larger grid
+         grow(lastColumn + 1, lastRow + 1);
+         return;
+      }
+
+      for (int row = cellOf(bounds.y); row <= lastRow; row++) {
+         for (int column = cellOf(bounds.x); column <= lastColumn; column++) {
+            int index = row * columns + column;
+            List<StackImage> cell = cells[index];
+            if (cell == null) {
+               cell = new ArrayList<>();
+               cells[index] = cell;
+            }
+
+            int i = cell.size();
+            while (i > 0
+               && entries.get(cell.get(i - 1)).order > entry.order) {
+               i--;
+            }
+            cell.add(i, pile);
+         }
+      }
+   }
+
+   // Enlarge the grid to at least the given number of columns and rows, but
+   // no more than MAX_CELLS of either, since cellOf never goes past that,
+   // and put every pile back into its cells
+   private void grow(int minColumns, int minRows)
+   {
+      columns = Math.min(Math.max(minColumns, columns * 2), MAX_CELLS);
+      rows = Math.min(Math.max(minRows, rows * 2), MAX_CELLS);
+      cells = newCells(columns * rows);
+
+      // Reinsert in z-order, so that appending keeps each cell in order
+      List<Map.Entry<StackImage, Entry>> all = new ArrayList<>(
+               entries.entrySet());
+      all.sort((a, b) -> Long.compare(a.getValue().order, b.getValue().order));
+      for (Map.Entry<StackImage, Entry> e : all) {
+         if (e.getValue().bounds != null) {
+            addCells(e.getKey(), e.getValue());
+         }
+      }
+   }
+
+   private void removeCells(StackImage pile, Rectangle bounds)
+   {
+      int lastColumn = Math.min(cellOf(bounds.x + bounds.width - 1),
+               columns - 1);
+      int lastRow = Math.min(cellOf(bounds.y + bounds.height - 1), rows - 1);
+      for (int row = cellOf(bounds.y); row <= lastRow; row++) {
+         for (int column = cellOf(bounds.x); column <= lastColumn; column++) {
+            List<StackImage> cell = cells[row * columns + column];
+            if (cell != null) {
+               cell.remove(pile);
+            }
+         }
+      }
+   }
+
+   // Return the cell coordinate for the given pixel coordinate; points off
+   // the grid are clamped to the edge cells, which is safe because every
+   // candidate is checked against the pile's actual bounds
+   private static int cellOf(int coordinate)
+   {
+      return Math.min(Math.max(coordinate, 0) / CELL_SIZE, MAX_CELLS - 1);
+   }
+
+   @SuppressWarnings("unchecked")
+   private static List<StackImage>[] newCells(int size)
+   {
+      return (List<StackImage>[]) new List<?>[size];
+   }
+
+   private final Map<StackImage, Entry> entries;
+
+   private long nextOrder;
+
+   private int columns;
+   private int rows;
+
+   // The piles covering each cell, in row-major order
+   private List<StackImage>[] cells;
+
+   // Width and height of a cell, in pixels; a little less than a card, so
+   // that each cell is covered by only a few piles
+   private static final int CELL_SIZE = 64;
+
+   // Cells in each direction beyond which the grid stops growing
+   private static final int MAX_CELLS = 256;
+
+   // What the index knows about each pile
+   private static final class Entry
+   {
+      Entry(long order)
+      {
+         this.order = order;
+      }
+
+      // Position in z-order; larger is closer to the front
+      final long order;
+
+      // Area covered, as of the last update, or null if never painted
+      Rectangle bounds;
+   }
+}
@@ -0,0 +1,228 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             StackImage.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.ui;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+
+import edu.depauw.csc232.solitaire.core.Card;
+import edu.depauw.csc232.solitaire.core.CardStack;
+import edu.depauw.csc232.solitaire.core.StackListener;
+
+/**
+ * The image displayed for a CardStack on a Table. The image is cached until
+ * the stack reports that its cards have changed, and a fanned-out stack is
+ * drawn into a backing buffer that is reused from one change to the next, so
+ * that only the cards that changed are drawn again.
+ * 
+ * @author bhoward
+ */
+final class StackImage implements StackListener
+{
+   /**
+    * Construct the image for the given stack, and attach it to the stack as
+    * its listener.
+    * 
+    * @param stack
+    * @param boundsListener
+    *           the listener to be told whenever the position or painted size
+    *           of the stack changes, or null for none
+    */
+   StackImage(CardStack stack, Consumer<? super StackImage> boundsListener)
+   {
+      this.stack = stack;
+      this.boundsListener = boundsListener;
+      stack.setListener(this);
+   }
+
+   @Override
+   public void cardsChanged(CardStack changedStack, int index)
+   {
+      cachedImage = null;
+      valid = Math.min(valid, index);
+   }
+
+   /**
+    * Bring the backing buffer up to date with the cards, and return a view of
+    * the part of it that the current cards cover. Only the cards that have
+    * changed since the last call are drawn: new cards are simply drawn on
+    * top, while if cards were removed (or replaced), the area from the first
+    * changed card onward is cleared and redrawn, clipped to that area.
+    */
+   private Image compose(CardImages images)
+   {
+      int xOffset = stack.getHorizontalOffset();
+      int yOffset = stack.getVerticalOffset();
+      Card top = stack.getTop();
+      int cardWidth = images.getWidth(top);
+      int cardHeight = images.getHeight(top);
+      int n = stack.size();
+      int width = cardWidth + xOffset * (n - 1);
+      int height = cardHeight + yOffset * (n - 1);
+
+      if (buffer == null || images != bufferImages
+         || width > buffer.getWidth() || height > buffer.getHeight()) {
+         // Leave room for a few more cards before the buffer must be replaced
+         buffer = new BufferedImage(width + xOffset * GROWTH,
+                  height + yOffset * GROWTH, BufferedImage.TYPE_INT_ARGB);
+         bufferImages = images;
+         composed = 0;
+         valid = 0;
+      }
+
+      Graphics2D g = buffer.createGraphics();
+      int first = valid;
+      if (valid < composed) {
+         // Erase everything from the first changed card on, then redraw the
+         // parts of the unchanged cards below it that were covered
+         int clipX = xOffset * valid;
+         int clipY = yOffset * valid;
+         g.setComposite(AlphaComposite.Clear);
+         g.fillRect(clipX, clipY, buffer.getWidth() - clipX,
+                  buffer.getHeight() - clipY);
+         g.setComposite(AlphaComposite.SrcOver);
+         g.clipRect(clipX, clipY, buffer.getWidth() - clipX,
+                  buffer.getHeight() - clipY);
+
+         while (first > 0 && xOffset * (first - 1) + cardWidth > clipX
+            && yOffset * (first - 1) + cardHeight > clipY) {
+            first--;
+         }
+      }
+
+      for (int i = first; i < n; i++) {
+         images.drawCard(g, stack.getFromBottom(i), xOffset * i, yOffset * i);
+      }
+      g.dispose();
+
+      composed = n;
+      valid = n;
+      return buffer.getSubimage(0, 0, width, height);
+   }
+
+   /**
+    * Return whether the given point lies within the image currently displayed
+    * for the stack.
+    * 
+    * @param px
+    * @param py
+    * @return true if the point is over the stack
+    */
+   boolean contains(int px, int py)
+   {
+      Image image = cachedImage;
+      int x = stack.getX();
+      int y = stack.getY();
+      return image != null && x <= px && px < x + image.getWidth(null)
+         && y <= py && py < y + image.getHeight(null);
+   }
+
+   // Tell the listener, if any, that the painted bounds have changed
+   private void fireBoundsChanged()
+   {
+      if (boundsListener != null) {
+         boundsListener.accept(this);
+      }
+   }
+
+   /**
+    * @return the image to display for the stack
+    * 
+    * @param images
+    */
+   Image getImage(CardImages images)
+   {
+      if (cachedImage == null) {
+         if (stack.isEmpty()) {
+            cachedImage = images.getImage(null);
+         }
+         else if (stack.getHorizontalOffset() == 0
+            && stack.getVerticalOffset() == 0) {
+            cachedImage = images.getImage(stack.getTop());
+         }
+         else {
+            cachedImage = compose(images);
+         }
+         int width = cachedImage.getWidth(null);
+         int height = cachedImage.getHeight(null);
+         if (width != paintedWidth || height != paintedHeight) {
+            paintedWidth = width;
+            paintedHeight = height;
+            fireBoundsChanged();
+         }
+      }
+
+      return cachedImage;
+   }
+
+   /**
+    * Return the area of the table covered by the image most recently returned
+    * from {@link #getImage(CardImages)}, at the current position of the
+    * stack. Until the next call to getImage, this is still the area showing
+    * the old image on the screen, even if the cards have since changed.
+    * 
+    * @return the bounds, or null if no image has been requested yet
+    */
+   Rectangle getPaintedBounds()
+   {
+      if (paintedWidth < 0) {
+         return null;
+      }
+      return new Rectangle(stack.getX(), stack.getY(), paintedWidth,
+               paintedHeight);
+   }
+
+   /**
+    * @return the stack shown by this image
+    */
+   CardStack getStack()
+   {
+      return stack;
+   }
+
+   /**
+    * Stop listening to the stack, and forget the image.
+    */
+   void release()
+   {
+      stack.setListener(null);
+      cachedImage = null;
+      buffer = null;
+   }
+
+   @Override
+   public void stackMoved(CardStack movedStack)
+   {
+      fireBoundsChanged();
+   }
+
+   private final CardStack stack;
+
+   private Image cachedImage;
+   private int paintedWidth = -1;
+   private int paintedHeight = -1;
+   private final Consumer<? super StackImage> boundsListener;
+
+   // Backing image for fanned-out stacks, reused from one change to the next;
+   // it currently shows the bottom "composed" cards, of which the bottom
+   // "valid" cards are still the same as in the stack
+   private BufferedImage buffer;
+   private CardImages bufferImages;
+   private int composed;
+   private int valid;
+
+   // Number of extra cards to allow for when the backing image is replaced
+   private static final int GROWTH = 8;
+}
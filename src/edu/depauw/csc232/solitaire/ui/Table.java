@@ -15,23 +15,41 @@ import java.awt.Cursor;
 import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Stack;
+import java.util.Map;
+import java.util.Set;
 
 import javax.swing.AbstractAction;
 import javax.swing.JPanel;
 import javax.swing.KeyStroke;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.event.MouseInputAdapter;
 import javax.swing.event.MouseInputListener;
 
 import edu.depauw.csc232.solitaire.Game;
+import edu.depauw.csc232.solitaire.core.Board;
+import edu.depauw.csc232.solitaire.core.CardStack;
+import edu.depauw.csc232.solitaire.core.Packet;
+import edu.depauw.csc232.solitaire.core.Pile;
 
 /**
- * Manage a collection of Piles for a card game, and route mouse actions (click,
- * move, and drag/drop) to them.
+ * Display the Piles of a card game, and route mouse actions (click, move, and
+ * drag/drop) to them. The cards themselves, and the rules for moving them,
+ * are kept by a {@link Board}; the Table only turns mouse events into calls on
+ * the Board, and keeps an image of each pile to draw.
  * 
  * @author bhoward
  */
@@ -46,10 +64,12 @@ public class Table extends JPanel
    public Table(CardImages images)
    {
       this.images = images;
+      this.board = new Board();
       this.piles = new ArrayList<>();
-      this.mover = null;
-      this.undoItems = new Stack<>();
-      this.redoItems = new Stack<>();
+      this.stackImages = new IdentityHashMap<>();
+      this.pileIndex = new PileIndex();
+      this.dropTargets = Collections.newSetFromMap(new IdentityHashMap<>());
+      this.hintPiles = Collections.newSetFromMap(new IdentityHashMap<>());
 
       MouseInputListener tableListener = new TableListener();
       addMouseListener(tableListener);
@@ -76,6 +96,17 @@ public class Table extends JPanel
       });
    }
 
+   /**
+    * Register a listener to be told whenever the length of the undo/redo
+    * history, or the position in it, changes.
+    * 
+    * @param listener
+    */
+   public void addHistoryListener(ChangeListener listener)
+   {
+      listenerList.add(ChangeListener.class, listener);
+   }
+
    /**
     * Add the given Pile on top of (in drawing order) any existing piles.
     * 
@@ -84,19 +115,59 @@ public class Table extends JPanel
    public void addPile(Pile pile)
    {
       piles.add(pile);
+      board.addPile(pile);
+      StackImage image = new StackImage(pile, pileIndex::update);
+      stackImages.put(pile, image);
+      pileIndex.add(image);
+   }
+
+   /**
+    * Forget the drop targets of the drag that is ending, marking them for
+    * repainting if they were being shown.
+    */
+   private void clearDropTargets()
+   {
+      if (showDropTargets) {
+         markDirty(dropTargets);
+      }
+      dropTargets.clear();
+   }
+
+   /**
+    * Stop outlining the piles of the hint being shown, if any.
+    */
+   public void clearHint()
+   {
+      showHint(Collections.emptySet());
+   }
+
+   /**
+    * Stop keeping a journal of the game, if one is open, and close its file.
+    */
+   public void closeJournal()
+   {
+      board.closeJournal();
    }
 
    /**
-    * Commit the current CardMover, and add its actions as a single move to the
-    * undo/redo history.
+    * Find every pile that will accept the packet just picked up. Nothing on
+    * the table changes until the packet is dropped, so this set answers
+    * whether a drop is allowed for the rest of the drag.
+    * 
+    * @param packet
     */
-   private void commit()
+   private void computeDropTargets(Packet packet)
    {
-      if (!mover.isEmpty()) {
-         undoItems.push(mover);
-         redoItems.clear();
+      dropTargets.clear();
+      for (Pile pile : piles) {
+         if (pile.canDrop(packet)) {
+            dropTargets.add(pile);
+         }
+      }
+
+      if (showDropTargets) {
+         markDirty(dropTargets);
       }
-      mover = null;
    }
 
    /**
@@ -107,67 +178,218 @@ public class Table extends JPanel
     */
    public void dealGame(Game game)
    {
-      CardMover mover = getCardMover();
-      game.dealGame(mover);
-      initialCommit();
+      board.dealGame(game);
+      fireHistoryChanged();
    }
 
    /**
-    * Get the current CardMover; creating it if it doesn't already exist.
+    * Forget everything about the drag of the given packet, which has just
+    * ended, including its image.
     * 
-    * @return the current CardMover
+    * @param packet
     */
-   private CardMover getCardMover()
+   private void endDrag(Packet packet)
    {
-      if (mover == null) {
-         mover = new CardMover();
+      clearDropTargets();
+      stackImages.remove(packet).release();
+      setHighlightPile(null);
+   }
+
+   // Tell the history listeners that the history has changed
+   private void fireHistoryChanged()
+   {
+      ChangeEvent event = new ChangeEvent(this);
+      for (ChangeListener listener : listenerList
+               .getListeners(ChangeListener.class)) {
+         listener.stateChanged(event);
       }
-      return mover;
    }
 
    /**
-    * Commit the current CardMover, but clear out the undo/redo history so that
-    * the effects of the mover will be permanent.
+    * @return the Board holding the cards shown on this table
+    */
+   public Board getBoard()
+   {
+      return board;
+   }
+
+   /**
+    * @return the number of moves in the undo/redo history; positions in the
+    *         history run from 0 to this number
+    */
+   public int getHistoryLength()
+   {
+      return board.getHistoryLength();
+   }
+
+   /**
+    * @return the current position in the undo/redo history: the number of
+    *         moves that can be undone
+    */
+   public int getHistoryPosition()
+   {
+      return board.getHistoryPosition();
+   }
+
+   /**
+    * Return a 64-bit Zobrist hash of the cards on the table, as given by
+    * {@link Board#getPositionHash()}.
     * 
-    * @param mover
+    * @return the hash of the current position
     */
-   private void initialCommit()
+   public long getPositionHash()
    {
-      undoItems.clear();
-      redoItems.clear();
-      this.mover = null;
+      return board.getPositionHash();
    }
 
-   @Override
-   public void paintComponent(Graphics g)
+   /**
+    * @param stack
+    * @return the area covered by the stack when drawn with a highlight border
+    */
+   private Rectangle getHighlightBounds(CardStack stack)
    {
-      super.paintComponent(g);
+      StackImage image = imageOf(stack);
+      image.getImage(images);
+      Rectangle bounds = image.getPaintedBounds();
+      bounds.grow(HIGHLIGHT_BORDER_WIDTH, HIGHLIGHT_BORDER_WIDTH);
+      return bounds;
+   }
 
-      // draw each of the piles on the table;
-      // the highlighted pile, if present, gets a border
-      for (Pile pile : piles) {
-         Image image = pile.getImage(images);
-         int x = pile.getX();
-         int y = pile.getY();
-         if (pile == highlightPile) {
-            int w = image.getWidth(null);
-            int h = image.getHeight(null);
+   /**
+    * @param packet
+    * @return the area covered by the dragged packet and its shadow
+    */
+   private Rectangle getPacketBounds(Packet packet)
+   {
+      StackImage image = imageOf(packet);
+      image.getImage(images);
+      Rectangle bounds = image.getPaintedBounds();
+      bounds.width += SHADOW_WIDTH;
+      bounds.height += SHADOW_WIDTH;
+      return bounds;
+   }
 
-            g.setColor(HIGHLIGHT_BORDER_COLOR);
-            int borderX = x - HIGHLIGHT_BORDER_WIDTH;
-            int borderY = y - HIGHLIGHT_BORDER_WIDTH;
-            int borderW = w + HIGHLIGHT_BORDER_WIDTH * 2;
-            int borderH = h + HIGHLIGHT_BORDER_WIDTH * 2;
-            g.fillRoundRect(borderX, borderY, borderW, borderH,
-                     HIGHLIGHT_BORDER_WIDTH * 2, HIGHLIGHT_BORDER_WIDTH * 2);
+   /**
+    * @param stack
+    *           a pile on this table, or the packet being dragged
+    * @return the image kept for the stack
+    */
+   private StackImage imageOf(CardStack stack)
+   {
+      return stackImages.get(stack);
+   }
+
+   /**
+    * @param pile
+    * @return true if the pile should be outlined as a place where the
+    *         dragged packet may be dropped
+    */
+   private boolean isShownTarget(Pile pile)
+   {
+      Packet packet = board.getPacket();
+      return showDropTargets && packet != null && pile != packet.getOrigin()
+         && dropTargets.contains(pile);
+   }
+
+   /**
+    * Add the area covered by the given stack, both as it was last painted and
+    * as it will be painted now, to the region to be repainted.
+    * 
+    * @param stack
+    */
+   private void markDirty(CardStack stack)
+   {
+      StackImage image = imageOf(stack);
+      markDirty(image.getPaintedBounds());
+      image.getImage(images);
+      markDirty(image.getPaintedBounds());
+   }
+
+   /**
+    * Mark each of the given stacks for repainting.
+    * 
+    * @param stacks
+    */
+   private void markDirty(Collection<? extends CardStack> stacks)
+   {
+      for (CardStack stack : stacks) {
+         markDirty(stack);
+      }
+   }
+
+   /**
+    * Add the given area to the region to be repainted.
+    * 
+    * @param bounds
+    *           the area, or null for none
+    */
+   private void markDirty(Rectangle bounds)
+   {
+      if (bounds != null) {
+         if (dirty == null) {
+            dirty = new Rectangle(bounds);
+         }
+         else {
+            dirty.add(bounds);
          }
-         g.drawImage(image, x, y, null);
+      }
+   }
+
+   /**
+    * Keep a journal of the game in the given file, so that it can be resumed
+    * after the window is closed: every move, undo, and redo is appended to
+    * the file as it happens. This should be called just after the game has
+    * been dealt and its piles laid out, before any moves are made. If the
+    * file already holds a journal, the game is first brought up to date by
+    * replaying it, without drawing the positions in between.
+    * 
+    * @param file
+    * @param seed
+    *           the number from which the game was dealt, such as its deal
+    *           number, which is saved in a new journal
+    * @throws IOException
+    *            if the file cannot be read or written, or holds a journal
+    *            for a different seed
+    */
+   public void openJournal(File file, long seed) throws IOException
+   {
+      Set<Pile> changed = new LinkedHashSet<>();
+      board.openJournal(file, seed, changed);
+      if (!changed.isEmpty()) {
+         backgroundValid = false;
+         markDirty(changed);
+         repaintDirty();
+         fireHistoryChanged();
+      }
+   }
+
+   @Override
+   public void paintComponent(Graphics g)
+   {
+      Rectangle clip = g.getClipBounds();
+      Packet packet = board.getPacket();
+      if (packet != null && prepareBackground()) {
+         // nothing under the packet changes during a drag, so copy the rest
+         // of the table from the background buffer, and then redraw just the
+         // highlighted pile (and anything above it) with its border
+         g.drawImage(background, 0, 0, null);
+         if (highlightPile != null) {
+            Rectangle area = getHighlightBounds(highlightPile);
+            if (clip != null) {
+               area = area.intersection(clip);
+            }
+            paintPiles(g, area, piles.indexOf(highlightPile), highlightPile);
+         }
+      }
+      else {
+         super.paintComponent(g);
+         paintPiles(g, clip, 0, highlightPile);
       }
 
       // now draw the packet being dragged, if any
       // it is drawn on top, with a shadow underneath
       if (packet != null) {
-         Image image = packet.getImage(images);
+         Image image = imageOf(packet).getImage(images);
          int x = packet.getX();
          int y = packet.getY();
          int w = image.getWidth(null);
@@ -181,16 +403,120 @@ public class Table extends JPanel
    }
 
    /**
-    * Redo the most recently undone move, if any.
+    * Draw the piles, in z-order starting from the given index, that meet the
+    * given area (or all of them, if the area is null). The highlighted pile,
+    * if any, gets a border, as do the legal drop targets if they are being
+    * shown.
+    * 
+    * @param g
+    * @param area
+    * @param first
+    * @param highlight
     */
-   private void redo()
+   private void paintPiles(Graphics g, Rectangle area, int first,
+            CardStack highlight)
    {
-      if (!redoItems.isEmpty()) {
-         CardMover mover = redoItems.pop();
-         mover.redo();
-         undoItems.push(mover);
+      for (int i = first; i < piles.size(); i++) {
+         Pile pile = piles.get(i);
+         Image image = imageOf(pile).getImage(images);
+         int x = pile.getX();
+         int y = pile.getY();
+         int w = image.getWidth(null);
+         int h = image.getHeight(null);
+         if (area != null && !area.intersects(x - HIGHLIGHT_BORDER_WIDTH,
+                  y - HIGHLIGHT_BORDER_WIDTH, w + HIGHLIGHT_BORDER_WIDTH * 2,
+                  h + HIGHLIGHT_BORDER_WIDTH * 2)) {
+            continue;
+         }
+
+         if (pile == highlight || isShownTarget(pile)
+            || hintPiles.contains(pile)) {
+            g.setColor((pile == highlight) ? HIGHLIGHT_BORDER_COLOR
+               : hintPiles.contains(pile) ? HINT_BORDER_COLOR
+                  : TARGET_BORDER_COLOR);
+            int borderX = x - HIGHLIGHT_BORDER_WIDTH;
+            int borderY = y - HIGHLIGHT_BORDER_WIDTH;
+            int borderW = w + HIGHLIGHT_BORDER_WIDTH * 2;
+            int borderH = h + HIGHLIGHT_BORDER_WIDTH * 2;
+            g.fillRoundRect(borderX, borderY, borderW, borderH,
+                     HIGHLIGHT_BORDER_WIDTH * 2, HIGHLIGHT_BORDER_WIDTH * 2);
+         }
+         g.drawImage(image, x, y, null);
+      }
+   }
+
+   /**
+    * Make sure that the background buffer holds the current table without
+    * the dragged packet, rendering it if necessary. A VolatileImage is used
+    * when the panel can create one; otherwise an ordinary BufferedImage.
+    * 
+    * @return true if the buffer is ready to be copied to the screen
+    */
+   private boolean prepareBackground()
+   {
+      int width = getWidth();
+      int height = getHeight();
+      if (width <= 0 || height <= 0) {
+         return false;
+      }
+
+      // A VolatileImage may lose its contents while being rendered; if that
+      // happens, try once more
+      for (int attempt = 0; attempt < 2; attempt++) {
+         if (background == null || background.getWidth(null) != width
+            || background.getHeight(null) != height) {
+            background = createVolatileImage(width, height);
+            if (background == null) {
+               // not displayable (or headless)
+               background = new BufferedImage(width, height,
+                        BufferedImage.TYPE_INT_RGB);
+            }
+            backgroundValid = false;
+         }
+
+         VolatileImage volatileImage = (background instanceof VolatileImage)
+            ? (VolatileImage) background : null;
+         if (volatileImage != null) {
+            int status = volatileImage.validate(getGraphicsConfiguration());
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+               background = null;
+               continue;
+            }
+            else if (status == VolatileImage.IMAGE_RESTORED) {
+               backgroundValid = false;
+            }
+         }
+
+         if (!backgroundValid) {
+            Graphics g = background.getGraphics();
+            g.setColor(getBackground());
+            g.fillRect(0, 0, width, height);
+            paintPiles(g, null, 0, null);
+            g.dispose();
+            backgroundValid = true;
+         }
 
-         repaint();
+         if (volatileImage == null || !volatileImage.contentsLost()) {
+            return true;
+         }
+         backgroundValid = false;
+      }
+
+      return false;
+   }
+
+   /**
+    * Redo the most recently undone move, if any. Nothing happens while cards
+    * are being dragged.
+    */
+   private void redo()
+   {
+      Set<Pile> changed = new LinkedHashSet<>();
+      if (board.redo(changed)) {
+         backgroundValid = false;
+         markDirty(changed);
+         repaintDirty();
+         fireHistoryChanged();
       }
    }
 
@@ -200,36 +526,172 @@ public class Table extends JPanel
     * @param pile
     * @return true if the pile was present
     */
-   public boolean removePile(CardStack pile)
+   public boolean removePile(Pile pile)
    {
+      StackImage image = stackImages.remove(pile);
+      if (image != null) {
+         pileIndex.remove(image);
+         image.release();
+      }
+      board.removePile(pile);
       return piles.remove(pile);
    }
 
    /**
-    * Undo the most recent move, if any.
+    * Repaint the region marked by markDirty, widened to include any
+    * highlight border, and then clear it.
     */
-   private void undo()
+   private void repaintDirty()
+   {
+      if (dirty != null) {
+         dirty.grow(HIGHLIGHT_BORDER_WIDTH, HIGHLIGHT_BORDER_WIDTH);
+         repaint(dirty);
+         dirty = null;
+      }
+   }
+
+   /**
+    * Jump to the given position in the undo/redo history, as if by undoing or
+    * redoing all of the moves in between. Distant positions are reached by
+    * restoring a saved arrangement of the cards near the position and
+    * replaying only the moves after it. Nothing happens while cards are
+    * being dragged.
+    * 
+    * @param position
+    *           the position, from 0 to {@link #getHistoryLength()}
+    */
+   public void seekHistory(int position)
+   {
+      Set<Pile> changed = new LinkedHashSet<>();
+      if (board.seek(position, changed)) {
+         backgroundValid = false;
+         markDirty(changed);
+         repaintDirty();
+         fireHistoryChanged();
+      }
+   }
+
+   /**
+    * Change the highlighted pile, marking the old and new ones for
+    * repainting if it has changed.
+    * 
+    * @param pile
+    *           the pile to highlight, or null for none
+    */
+   private void setHighlightPile(CardStack pile)
+   {
+      if (pile != highlightPile) {
+         if (highlightPile != null) {
+            markDirty(highlightPile);
+         }
+         if (pile != null) {
+            markDirty(pile);
+         }
+         highlightPile = pile;
+      }
+   }
+
+   /**
+    * Limit the memory used to remember moves for undo and redo. Once the
+    * history grows past the limit, the oldest moves are forgotten. The
+    * default is one megabyte, which holds on the order of a hundred thousand
+    * moves.
+    * 
+    * @param maxBytes
+    *           the limit, which must be at least 4096
+    */
+   public void setHistoryLimit(int maxBytes)
+   {
+      board.setHistoryLimit(maxBytes);
+   }
+
+   /**
+    * Choose whether every pile that will accept the cards being dragged is
+    * outlined for the whole drag, rather than only the one under the mouse.
+    * 
+    * @param show
+    */
+   public void setShowDropTargets(boolean show)
+   {
+      if (show != showDropTargets) {
+         showDropTargets = show;
+         if (board.getPacket() != null) {
+            backgroundValid = false;
+            markDirty(dropTargets);
+            repaintDirty();
+         }
+      }
+   }
+
+   /**
+    * Treat a pile as interchangeable with another in the position hash, as by
+    * {@link Board#shareHashSlot(Pile, Pile)}. Both piles must already be on
+    * this table.
+    * 
+    * @param pile
+    * @param other
+    */
+   public void shareHashSlot(Pile pile, Pile other)
    {
-      if (!undoItems.isEmpty()) {
-         CardMover mover = undoItems.pop();
-         mover.undo();
-         redoItems.push(mover);
+      board.shareHashSlot(pile, other);
+   }
 
-         repaint();
+   /**
+    * Outline the given piles as a hint of a move to make, in place of any
+    * hint already shown. The outline stays until it is replaced or cleared.
+    * 
+    * @param hint
+    *           the piles to outline
+    */
+   public void showHint(Collection<Pile> hint)
+   {
+      if (!hintPiles.equals(hint)) {
+         markDirty(hintPiles);
+         hintPiles.clear();
+         hintPiles.addAll(hint);
+         markDirty(hintPiles);
+         backgroundValid = false;
+         repaintDirty();
       }
    }
 
-   private Stack<CardMover> undoItems;
-   private Stack<CardMover> redoItems;
+   /**
+    * Undo the most recent move, if any. Nothing happens while cards are being
+    * dragged.
+    */
+   private void undo()
+   {
+      Set<Pile> changed = new LinkedHashSet<>();
+      if (board.undo(changed)) {
+         backgroundValid = false;
+         markDirty(changed);
+         repaintDirty();
+         fireHistoryChanged();
+      }
+   }
 
-   private CardMover mover;
+   private final Board board;
 
    private final CardImages images;
 
    private final List<Pile> piles; // maintain this in z-order (back to front)
+   private final Map<CardStack, StackImage> stackImages; // piles and packet
+   private final PileIndex pileIndex; // for finding the pile under the mouse
    private CardStack highlightPile;
 
-   private Packet packet;
+   // The piles that will accept the packet, found when the drag starts
+   private final Set<Pile> dropTargets;
+   private boolean showDropTargets;
+
+   // The piles outlined as a hint of the next move
+   private final Set<Pile> hintPiles;
+
+   // Region to repaint at the end of the current event, or null if none
+   private Rectangle dirty;
+
+   // The table without the dragged packet, rendered once per drag
+   private Image background;
+   private boolean backgroundValid;
 
    private static final int HIGHLIGHT_BORDER_WIDTH = 3;
 
@@ -239,6 +701,10 @@ public class Table extends JPanel
 
    private static final Color HIGHLIGHT_BORDER_COLOR = new Color(0, 0, 0);
 
+   private static final Color TARGET_BORDER_COLOR = new Color(0, 0, 0, 96);
+
+   private static final Color HINT_BORDER_COLOR = new Color(255, 215, 0);
+
    private static final Cursor MAIN_CURSOR = new Cursor(Cursor.DEFAULT_CURSOR);
 
    private static final Cursor DRAG_CURSOR = new Cursor(Cursor.HAND_CURSOR);
@@ -252,16 +718,18 @@ public class Table extends JPanel
     */
    final class TableListener extends MouseInputAdapter
    {
-      private Pile findPile(MouseEvent e)
+      // Pass a click at the event's point on the given pile to the board
+      private boolean click(Pile pile, MouseEvent e, Collection<Pile> changed)
       {
-         for (int i = piles.size() - 1; i >= 0; i--) {
-            Pile pile = piles.get(i);
-            if (pile.underMouse(e)) {
-               return pile;
-            }
-         }
+         int n = pile.identifyCard(e.getX(), e.getY());
+         int numCards = (n == -1) ? 0 : (pile.size() - n);
+         return board.click(pile, numCards, changed);
+      }
 
-         return null;
+      private Pile findPile(MouseEvent e)
+      {
+         StackImage image = pileIndex.find(e.getX(), e.getY());
+         return (image == null) ? null : (Pile) image.getStack();
       }
 
       @Override
@@ -269,10 +737,12 @@ public class Table extends JPanel
       {
          Pile pile = findPile(e);
          if (pile != null) {
-            CardMover mover = getCardMover();
-            pile.handleClick(mover, e);
-            commit();
-            repaint();
+            Set<Pile> changed = new LinkedHashSet<>();
+            if (click(pile, e, changed)) {
+               markDirty(changed);
+               fireHistoryChanged();
+            }
+            repaintDirty();
          }
       }
 
@@ -281,19 +751,31 @@ public class Table extends JPanel
       {
          if (dragStarting) {
             Pile pile = findPile(e);
-            if (pile != null && pile.canDrag(e)) {
-               packet = pile.startDrag(e);
+            if (pile != null && pile.canDrag()) {
+               Packet packet = board.startDrag(pile,
+                        pile.identifyCard(e.getX(), e.getY()));
+               if (packet != null) {
+                  // the dragged cards have been taken off of the pile, and
+                  // the background needs to be rendered without them
+                  stackImages.put(packet, new StackImage(packet, null));
+                  markDirty(pile);
+                  backgroundValid = false;
+                  computeDropTargets(packet);
+               }
             }
             dragStarting = false;
          }
 
+         Packet packet = board.getPacket();
          if (packet != null) {
+            markDirty(getPacketBounds(packet));
             Point point2 = e.getPoint();
             int dx = point2.x - point.x;
             int dy = point2.y - point.y;
             packet.setX(packet.getX() + dx);
             packet.setY(packet.getY() + dy);
             point = point2;
+            markDirty(getPacketBounds(packet));
 
             Pile pile = findPile(e);
             if (pile != null && pile != packet.getOrigin()) {
@@ -302,26 +784,29 @@ public class Table extends JPanel
             }
 
             if (pile != null && pile != packet.getOrigin()
-               && pile.canDrop(packet, e)) {
-               highlightPile = pile;
+               && dropTargets.contains(pile)) {
+               setHighlightPile(pile);
             }
             else {
-               highlightPile = null;
+               setHighlightPile(null);
             }
 
-            repaint();
+            repaintDirty();
          }
       }
 
       @Override
       public void mouseExited(MouseEvent e)
       {
+         Packet packet = board.getPacket();
          if (packet != null) {
-            packet.cancelDrag(e);
-            packet = null;
-            highlightPile = null;
+            markDirty(getPacketBounds(packet));
+            Set<Pile> changed = new LinkedHashSet<>();
+            board.cancelDrag(changed);
+            markDirty(changed);
+            endDrag(packet);
 
-            repaint();
+            repaintDirty();
          }
       }
 
@@ -329,7 +814,7 @@ public class Table extends JPanel
       public void mouseMoved(MouseEvent e)
       {
          Pile pile = findPile(e);
-         if (pile != null && pile.canDrag(e)) {
+         if (pile != null && pile.canDrag()) {
             setCursor(DRAG_CURSOR);
          }
          else {
@@ -348,27 +833,29 @@ public class Table extends JPanel
       @Override
       public void mouseReleased(MouseEvent e)
       {
+         Packet packet = board.getPacket();
          if (packet != null) {
+            markDirty(getPacketBounds(packet));
             Pile pile = findPile(e);
+            Set<Pile> changed = new LinkedHashSet<>();
             if (pile != null && pile == packet.getOrigin() && !definiteDrag) {
                // Treat as a click
-               packet.cancelDrag(e);
-               CardMover mover = getCardMover();
-               pile.handleClick(mover, e);
-               commit();
+               board.cancelDrag(changed);
+               if (click(pile, e, changed)) {
+                  fireHistoryChanged();
+               }
             }
-            else if (pile != null && pile.canDrop(packet, e)) {
-               CardMover mover = getCardMover();
-               packet.endDrag(pile, mover, e);
-               commit();
+            else if (pile != null && dropTargets.contains(pile)) {
+               board.drop(pile, changed);
+               fireHistoryChanged();
             }
             else {
-               packet.cancelDrag(e);
+               board.cancelDrag(changed);
             }
-            packet = null;
-            highlightPile = null;
+            markDirty(changed);
+            endDrag(packet);
 
-            repaint();
+            repaintDirty();
          }
          dragStarting = false;
       }
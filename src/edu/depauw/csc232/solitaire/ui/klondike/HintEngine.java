@@ -0,0 +1,287 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             HintEngine.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.ui.klondike;
+
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.swing.AbstractAction;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import edu.depauw.csc232.solitaire.core.BoardSnapshot;
+import edu.depauw.csc232.solitaire.core.Pile;
+import edu.depauw.csc232.solitaire.klondike.KlondikeGame;
+import edu.depauw.csc232.solitaire.klondike.solver.KlondikeMove;
+import edu.depauw.csc232.solitaire.klondike.solver.KlondikeState;
+import edu.depauw.csc232.solitaire.klondike.solver.MoveGenerator;
+import edu.depauw.csc232.solitaire.klondike.solver.Solution;
+import edu.depauw.csc232.solitaire.klondike.solver.Solver;
+import edu.depauw.csc232.solitaire.ui.Table;
+
+/**
+ * Find and show hints for a game of Klondike being played on a Table. Each
+ * time the position changes, the search for the old position is cancelled
+ * and a new one is started on a background thread, working on a
+ * {@link KlondikeState} read from the snapshot the Board publishes (since the
+ * piles themselves must only be touched on the event dispatch thread). The
+ * best move found is cached under the
+ * position hash of the table, so coming back to a position, by undo or
+ * otherwise, needs no new search. The hint is shown, by outlining the piles
+ * that the move takes cards from and to, when the player presses H, or after
+ * the player has made no move for a while.
+ * <p>
+ * The best move is the first move of a win, if the solver finds one within
+ * its node limit; otherwise it is the first move of a greedy playout. Every
+ * method here must be called on the event dispatch thread, which never waits
+ * for a search.
+ * 
+ * @author bhoward
+ */
+final class HintEngine
+{
+   /**
+    * Construct a hint engine for the given game, shown on the given table,
+    * and attach it to the table. The engine shuts down when the window
+    * holding the table is closed.
+    * 
+    * @param game
+    * @param table
+    */
+   HintEngine(KlondikeGame game, Table table)
+   {
+      this.game = game;
+      this.table = table;
+      this.moves = new int[MoveGenerator.MAX_MOVES];
+      this.cache = new LinkedHashMap<Long, Integer>(16, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest)
+         {
+            return size() > CACHE_SIZE;
+         }
+      };
+      this.solver = new Solver(MAX_NODES);
+      this.executor = Executors.newSingleThreadExecutor(runnable -> {
+         Thread thread = new Thread(runnable, "Klondike hints");
+         thread.setDaemon(true);
+         thread.setPriority(Thread.MIN_PRIORITY);
+         return thread;
+      });
+
+      this.idleTimer = new Timer(IDLE_DELAY, event -> requestHint());
+      idleTimer.setRepeats(false);
+
+      table.addHistoryListener(event -> positionChanged());
+      table.getInputMap().put(KeyStroke.getKeyStroke("H"), "HINT");
+      table.getActionMap().put("HINT", new AbstractAction()
+      {
+         @Override
+         public void actionPerformed(ActionEvent e)
+         {
+            requestHint();
+         }
+      });
+
+      Window window = SwingUtilities.getWindowAncestor(table);
+      if (window != null) {
+         window.addWindowListener(new WindowAdapter()
+         {
+            @Override
+            public void windowClosed(WindowEvent e)
+            {
+               shutdown();
+            }
+         });
+      }
+
+      positionChanged();
+   }
+
+   /**
+    * Find the best move from the given position. This runs on the search
+    * thread, and the solver is only used there.
+    * 
+    * @param state
+    * @return the move, or NO_MOVE if there is none
+    */
+   private int findBestMove(KlondikeState state)
+   {
+      Solution solution = solver.solve(state);
+      if (!solution.isSolved()) {
+         solution = solver.play(state, 1);
+      }
+
+      int[] best = solution.getMoves();
+      return (best.length == 0) ? NO_MOVE : best[0];
+   }
+
+   /**
+    * Record the result of a finished search, and show it if the player is
+    * waiting for a hint in that position.
+    * 
+    * @param hash
+    * @param move
+    */
+   private void found(long hash, int move)
+   {
+      cache.put(hash, move);
+      if (hash == table.getPositionHash()) {
+         search = null;
+         if (wanted) {
+            show(move);
+         }
+      }
+   }
+
+   /**
+    * Cancel the search for the old position, if it is still running, hide
+    * the old hint, and start a search for the new position unless its hint
+    * is already known.
+    */
+   private void positionChanged()
+   {
+      if (search != null) {
+         search.cancel(true);
+         search = null;
+      }
+      wanted = false;
+      table.clearHint();
+      idleTimer.restart();
+
+      BoardSnapshot snapshot = table.getBoard().getSnapshot();
+      long hash = snapshot.getPositionHash();
+      if (!cache.containsKey(hash)) {
+         search = executor.submit(() -> {
+            int move = findBestMove(KlondikeState.fromSnapshot(snapshot));
+            if (!Thread.currentThread().isInterrupted()) {
+               SwingUtilities.invokeLater(() -> found(hash, move));
+            }
+         });
+      }
+   }
+
+   /**
+    * Show the hint for the current position, at once if it is known, or else
+    * as soon as the search finishes.
+    */
+   void requestHint()
+   {
+      Integer move = cache.get(table.getPositionHash());
+      if (move != null) {
+         show(move);
+      }
+      else {
+         wanted = true;
+      }
+   }
+
+   /**
+    * Return the given move if it may be played in the current position, or
+    * an equivalent one if it may not only because the foundations hold their
+    * suits in a different order than in the position it was found in (which
+    * has the same hash).
+    * 
+    * @param move
+    * @return the move to show, or NO_MOVE if there is no such move
+    */
+   private int resolve(int move)
+   {
+      int n = MoveGenerator.generate(game.getPosition(), moves);
+      for (int i = 0; i < n; i++) {
+         if (moves[i] == move) {
+            return move;
+         }
+      }
+
+      if (KlondikeMove.kind(move) == KlondikeMove.PLAY
+         && KlondikeMove.to(move) >= KlondikeState.FOUNDATION) {
+         for (int i = 0; i < n; i++) {
+            if (KlondikeMove.from(moves[i]) == KlondikeMove.from(move)
+               && KlondikeMove.to(moves[i]) >= KlondikeState.FOUNDATION) {
+               return moves[i];
+            }
+         }
+      }
+      return NO_MOVE;
+   }
+
+   /**
+    * Outline the piles of the given move, unless cards are being dragged.
+    * 
+    * @param move
+    */
+   private void show(int move)
+   {
+      wanted = false;
+      if (table.getBoard().getPacket() != null) {
+         return;
+      }
+
+      move = (move == NO_MOVE) ? NO_MOVE : resolve(move);
+      if (move != NO_MOVE) {
+         Pile from = game.getPile(KlondikeMove.from(move));
+         Pile to = game.getPile(KlondikeMove.to(move));
+         table.showHint(Arrays.asList(from, to));
+      }
+   }
+
+   /**
+    * Stop searching, and let the search thread end.
+    */
+   private void shutdown()
+   {
+      idleTimer.stop();
+      executor.shutdownNow();
+   }
+
+   private final KlondikeGame game;
+
+   private final Table table;
+
+   // Scratch space for checking a move against the current position
+   private final int[] moves;
+
+   // The best move from each position searched, by position hash; most
+   // recently used last
+   private final Map<Long, Integer> cache;
+
+   private final Solver solver;
+
+   private final ExecutorService executor;
+
+   // The search for the current position, or null if none is running
+   private Future<?> search;
+
+   // True if a hint has been asked for, but its search has not finished
+   private boolean wanted;
+
+   private final Timer idleTimer;
+
+   // Positions to examine before settling for a greedy move
+   private static final long MAX_NODES = 200_000;
+
+   private static final int CACHE_SIZE = 1024;
+
+   // Milliseconds without a move before a hint is shown
+   private static final int IDLE_DELAY = 10_000;
+
+   private static final int NO_MOVE = -1;
+}
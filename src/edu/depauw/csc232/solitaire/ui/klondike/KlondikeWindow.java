@@ -0,0 +1,89 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             KlondikeWindow.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+package edu.depauw.csc232.solitaire.ui.klondike;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.depauw.csc232.solitaire.klondike.KlondikeGame;
+import edu.depauw.csc232.solitaire.ui.GameFrame;
+
+/**
+ * The window in which a game of Klondike is played, with hints. Only this
+ * side of Klondike touches AWT or Swing; the game itself and its rules are in
+ * {@link edu.depauw.csc232.solitaire.klondike}.
+ * 
+ * @author bhoward
+ */
+public class KlondikeWindow
+{
+   /**
+    * Construct a window for the given game, which is dealt, laid out, and
+    * resumed from its journal, if it has one, when the window is displayed.
+    * Pressing H shows a hint, as does waiting a while without making a move.
+    * 
+    * @param game
+    */
+   public KlondikeWindow(KlondikeGame game)
+   {
+      this.frame = new GameFrame("Klondike #" + game.getDealNumber(), 700,
+               600, table -> {
+                  table.dealGame(game);
+                  game.layout(table::addPile, table.getBoard());
+                  if (game.getJournal() != null) {
+                     try {
+                        table.openJournal(game.getJournal(),
+                                 game.getDealNumber());
+                     }
+                     catch (IOException e) {
+                        e.printStackTrace();
+                     }
+                  }
+                  new HintEngine(game, table);
+               });
+      game.setWinListener(frame::showWin);
+   }
+
+   /**
+    * Lay out the game and display the window on the screen.
+    */
+   public void display()
+   {
+      frame.display();
+   }
+
+   /**
+    * Main method for testing the Klondike game by itself. If an argument is
+    * given, it is the number of the deal to play. If a second argument is
+    * given, it names a journal file for the game; if that file already holds
+    * a journal, the game recorded there is resumed instead.
+    * 
+    * @param args
+    * @throws IOException
+    *            if the journal file cannot be read
+    */
+   public static void main(String[] args) throws IOException
+   {
+      File journal = (args.length > 1) ? new File(args[1]) : null;
+      KlondikeGame game;
+      if (journal != null && journal.length() > 0) {
+         game = KlondikeGame.resume(journal);
+      }
+      else {
+         game = (args.length > 0) ? new KlondikeGame(Long.parseLong(args[0]))
+            : new KlondikeGame();
+         game.setJournal(journal);
+      }
+      new KlondikeWindow(game).display();
+   }
+
+   private final GameFrame frame;
+}
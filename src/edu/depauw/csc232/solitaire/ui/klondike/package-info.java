@@ -0,0 +1,25 @@
+////////////////////////////////////////////////////////////////////////////////
+// File:             package-info.java
+// Course:           CSC 232, Spring 2022
+// Authors:          bhoward
+//
+// Acknowledgments:  None
+//
+// Online sources:   None
+////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * This package shows a game of Klondike from
+ * {@link edu.depauw.csc232.solitaire.klondike} on the screen.
+ * <ul>
+ * <li>{@link edu.depauw.csc232.solitaire.ui.klondike.KlondikeWindow
+ * KlondikeWindow} deals and lays out the game on the
+ * {@link edu.depauw.csc232.solitaire.ui.Table Table} of a
+ * {@link edu.depauw.csc232.solitaire.ui.GameFrame GameFrame}, keeps its
+ * journal, and announces a win.</li>
+ * <li>{@link edu.depauw.csc232.solitaire.ui.klondike.HintEngine HintEngine}
+ * searches for the best move in the background while the game is played,
+ * and outlines it on the table when asked.</li>
+ * </ul>
+ */
+package edu.depauw.csc232.solitaire.ui.klondike;